@@ -0,0 +1,133 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BattleRecorder - Grava as transições do robô para o treino offline.
+ *
+ * Cada decisão vira um registro (state, action, reward, nextState), o mesmo
+ * que vai para o ReplayBuffer, anexado a um log binário na pasta de dados.
+ * O arquivo é mapeado em memória: gravar é escrever 16 bytes no mapa e o
+ * contador do cabeçalho, sem syscall nem objeto por registro. Quando o mapa
+ * enche, o arquivo cresce GROW_RECORDS registros e é mapeado de novo.
+ *
+ * Só anexa: batalhas seguintes continuam do contador gravado, e o que está
+ * depois dele (a sobra do último crescimento, ou um registro cortado no
+ * meio) não vale. close() corta a sobra. O OfflineTrainer (pasta
+ * Simulator) lê vários desses logs e faz Q-iteration em lote.
+ *
+ * Layout (little-endian):
+ *   int MAGIC 'QLOG', int version, int schemaId, int numStates,
+ *   int numActions, int reservado, long registros
+ *   registros: int state, int action, float reward, int nextState
+ *              (nextState = QBrain.TERMINAL se a rodada acabou ali)
+ *
+ * Log com outro espaço de estados é deixado como está e a gravação fica
+ * desligada. São 16 bytes por decisão; no Robocode, de olho na cota da
+ * pasta de dados.
+ */
+public final class BattleRecorder {
+
+    public static final int MAGIC = 0x514C4F47; // "QLOG"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 6 * 4 + 8;
+    public static final int RECORD_BYTES = 16;
+    public static final int COUNT_OFFSET = 6 * 4;
+
+    private static final int GROW_RECORDS = 4096; // 64 KB por crescimento
+
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private long records = 0;
+    private long mapped = 0; // registros que cabem no mapa atual
+
+    /** Abre (ou cria) o log; se ele não servir, o recorder fica desligado. */
+    public BattleRecorder(File file, int schemaId, int numStates, int numActions) {
+        try {
+            if (file.getParentFile() != null) file.getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean fresh = channel.size() < HEADER_BYTES;
+            remap(0);
+            if (!fresh) {
+                if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != schemaId
+                        || map.getInt(12) != numStates || map.getInt(16) != numActions) {
+                    System.out.println("AVISO: " + file.getName() + " é de outro espaço de estados; gravação desligada.");
+                    release();
+                    return;
+                }
+                records = Math.min(map.getLong(COUNT_OFFSET), mapped);
+            }
+            map.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, schemaId).putInt(12, numStates)
+                    .putInt(16, numActions).putInt(20, 0).putLong(COUNT_OFFSET, records);
+        } catch (IOException e) {
+            e.printStackTrace();
+            release();
+        }
+    }
+
+    public boolean isOpen() {
+        return channel != null;
+    }
+
+    public long records() {
+        return records;
+    }
+
+    /** Anexa uma transição; estado inválido (ainda sem decisão) é ignorado. */
+    public void add(int state, int action, double reward, int nextState) {
+        if (channel == null || state < 0) return;
+        try {
+            if (records == mapped) remap(records + GROW_RECORDS);
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+            return;
+        }
+        int at = (int) (HEADER_BYTES + records * RECORD_BYTES);
+        map.putInt(at, state).putInt(at + 4, action).putFloat(at + 8, (float) reward).putInt(at + 12, nextState);
+        // Registro antes do contador: quem lê nunca vê um registro pela metade
+        records++;
+        map.putLong(COUNT_OFFSET, records);
+    }
+
+    /** Fim da batalha: manda o mapa para o disco e corta a sobra. */
+    public void close() {
+        if (channel == null) return;
+        try {
+            if (map != null) map.force();
+            map = null;
+            channel.truncate(HEADER_BYTES + records * RECORD_BYTES);
+        } catch (IOException e) {
+            // Alguns sistemas não cortam arquivo mapeado; a sobra fica depois do contador
+        }
+        release();
+    }
+
+    /** Solta o mapa e fecha o canal sem mexer no tamanho do arquivo. */
+    private void release() {
+        map = null;
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+
+    /** Mapeia o cabeçalho mais capacity registros (o arquivo cresce se precisar). */
+    private void remap(long capacity) throws IOException {
+        long bytes = HEADER_BYTES + capacity * RECORD_BYTES;
+        if (bytes > Integer.MAX_VALUE) throw new IOException("log de batalhas passou de 2 GB");
+        bytes = Math.max(bytes, channel.size());
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        mapped = (bytes - HEADER_BYTES) / RECORD_BYTES;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package MeleeLearning;
+
+/**
+ * EligibilityTraces - Rastros de elegibilidade esparsos para Q(λ).
+ *
+ * Guarda só as posições da tabela (estado * ações + ação) visitadas há
+ * pouco, com o peso de cada uma: 1 na visita, multiplicado por γλ a cada
+ * passo e descartado abaixo de MIN_TRACE. Com γλ = 0.72 isso dá uns 15
+ * passos de memória, então uma atualização mexe em poucas linhas, por
+ * maior que seja a tabela.
+ *
+ * Capacidade fixa e arrays paralelos (índice, valor) com remoção por troca;
+ * cheio, a visita nova toma o lugar do rastro mais fraco. Os rastros são do
+ * robô, não do cérebro: um por agente, zerados a cada rodada.
+ */
+public final class EligibilityTraces {
+
+    static final double MIN_TRACE = 0.01;
+
+    final int[] index;
+    final double[] value;
+    int count = 0;
+
+    public EligibilityTraces(int capacity) {
+        this.index = new int[capacity];
+        this.value = new double[capacity];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /** Rastro de substituição: a posição volta para 1. */
+    void visit(int idx) {
+        int weakest = 0;
+        for (int i = 0; i < count; i++) {
+            if (index[i] == idx) {
+                value[i] = 1.0;
+                return;
+            }
+            if (value[i] < value[weakest]) weakest = i;
+        }
+        int slot = (count < index.length) ? count++ : weakest;
+        index[slot] = idx;
+        value[slot] = 1.0;
+    }
+
+    void decay(double factor) {
+        for (int i = count - 1; i >= 0; i--) {
+            double v = value[i] * factor;
+            if (v < MIN_TRACE) {
+                int last = --count;
+                index[i] = index[last];
+                value[i] = value[last];
+            } else {
+                value[i] = v;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+package MeleeLearning;
+
+import robocode.Rules;
+import robocode.util.Utils;
+
+/**
+ * KnnGun - Mira por vizinhos mais próximos (dynamic clustering).
+ *
+ * Em vez de baldes fixos como o GuessFactorGun, cada oponente tem uma
+ * memória de situações: distância, velocidade lateral, velocidade de
+ * avanço, distância da parede e turnos desde a última troca de direção
+ * lateral, todas escaladas para perto de 0..1. Cada scan solta uma onda
+ * virtual que leva a situação do momento; quando ela alcança o inimigo, a
+ * situação entra na KdTree do oponente com o guess factor que ele usou.
+ *
+ * Para mirar, busca as K situações mais parecidas com a de agora e escolhe,
+ * entre os guess factors delas, o de maior densidade: soma de um kernel
+ * 1/(1+u²) com largura de meio robô naquela distância, cada vizinho pesando
+ * mais quanto mais perto. São uns K² passos, sem exp nem alocação.
+ *
+ * Como no GuessFactorGun, cada onda guarda também o tiro da preditiva e
+ * aim() só responde para o oponente em que os vizinhos estão acertando
+ * mais. A memória é limitada: LOG_SIZE situações por oponente (o anel da
+ * KdTree descarta as mais velhas), e a árvore de um oponente só é criada
+ * quando ele aparece. Fica em static no robô e vale a batalha toda; não vai
+ * para o disco.
+ */
+public final class KnnGun {
+
+    static final int DIMS = 5;
+    private static final int DIST = 0, LATERAL = 1, ADVANCING = 2, WALL = 3, SINCE_TURN = 4;
+    // Quanto cada dimensão pesa na distância entre situações
+    private static final double[] WEIGHTS = {4, 3, 1, 1.5, 1};
+
+    public static final int MAX_OPPONENTS = 64;
+    static final int LOG_SIZE = 2000; // situações por oponente
+    static final int K = 24;
+    private static final int MIN_POINTS = 10; // menos que isso na memória: sem palpite
+    private static final int MAX_WAVES = 512;
+    private static final int LATE_TICKS = 2;   // onda que passou há mais que isso: descarta
+    private static final double HALF_BOT = 18; // acerto virtual: dentro do meio robô
+
+    // Por oponente (toda a batalha)
+    private final String[] names = new String[MAX_OPPONENTS];
+    private int opponents = 0;
+    private final KdTree[] trees = new KdTree[MAX_OPPONENTS];
+    private final double[] lastDirection = new double[MAX_OPPONENTS];
+    private final long[] directionTime = new long[MAX_OPPONENTS]; // último scan com troca de direção
+    private final long[] lastScan = new long[MAX_OPPONENTS];
+    private final int[] knnHits = new int[MAX_OPPONENTS];    // acertos virtuais, só da batalha
+    private final int[] solverHits = new int[MAX_OPPONENTS];
+
+    // Ondas em voo (só a rodada atual)
+    private final int[] waveOpponent = new int[MAX_WAVES];
+    private final long[] waveTime = new long[MAX_WAVES];
+    private final double[] waveX = new double[MAX_WAVES];
+    private final double[] waveY = new double[MAX_WAVES];
+    private final double[] waveSpeed = new double[MAX_WAVES];
+    private final double[] waveBearing = new double[MAX_WAVES];
+    private final double[] waveDirection = new double[MAX_WAVES];
+    private final double[] waveEscape = new double[MAX_WAVES];
+    private final double[] waveKnnAngle = new double[MAX_WAVES];   // NaN = sem palpite
+    private final double[] waveSolverAngle = new double[MAX_WAVES];
+    private final double[] waveSituation = new double[MAX_WAVES * DIMS];
+    private int waveCount = 0;
+
+    private final double[] query = new double[DIMS];
+
+    /** Índice do oponente (criado na primeira vez); -1 se não couber mais. */
+    public int opponent(String name) {
+        for (int i = 0; i < opponents; i++) {
+            String n = names[i];
+            if (n == name || n.equals(name)) return i;
+        }
+        if (opponents == MAX_OPPONENTS) return -1;
+        names[opponents] = name;
+        trees[opponents] = new KdTree(DIMS, LOG_SIZE, K);
+        lastDirection[opponents] = 1;
+        return opponents++;
+    }
+
+    /** Início de rodada: ondas da rodada anterior não valem mais, e o tempo recomeça. */
+    public void newRound() {
+        waveCount = 0;
+        for (int i = 0; i < opponents; i++) {
+            directionTime[i] = 0;
+            lastScan[i] = 0;
+        }
+    }
+
+    /** Inimigo morreu: as ondas dele nunca vão quebrar. */
+    public void dropWaves(int opp) {
+        for (int w = waveCount - 1; w >= 0; w--) {
+            if (waveOpponent[w] == opp) removeWave(w);
+        }
+    }
+
+    /** Situações guardadas do oponente. */
+    public int memory(int opp) {
+        return opp < 0 ? 0 : trees[opp].size();
+    }
+
+    /**
+     * Scan do oponente opp: quebra as ondas dele que já o alcançaram (a
+     * situação de cada uma vai para a memória) e solta uma nova, de
+     * bulletPower. solverAngle é para onde a mira preditiva atiraria agora.
+     */
+    public void onScan(int opp, long time, double myX, double myY, double enemyX, double enemyY,
+                       double enemyHeading, double enemyVelocity, double bulletPower,
+                       double solverAngle, double fieldWidth, double fieldHeight) {
+        if (opp < 0) return;
+
+        for (int w = waveCount - 1; w >= 0; w--) {
+            if (waveOpponent[w] != opp) continue;
+            double dx = enemyX - waveX[w];
+            double dy = enemyY - waveY[w];
+            double traveled = (time - waveTime[w]) * waveSpeed[w];
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (traveled < distance) continue;
+            if (traveled - distance > LATE_TICKS * waveSpeed[w]) {
+                removeWave(w);
+                continue;
+            }
+
+            double actual = Math.atan2(dx, dy);
+            double tolerance = Math.atan(HALF_BOT / distance);
+            if (Math.abs(Utils.normalRelativeAngle(waveKnnAngle[w] - actual)) < tolerance) knnHits[opp]++;
+            if (Math.abs(Utils.normalRelativeAngle(waveSolverAngle[w] - actual)) < tolerance) solverHits[opp]++;
+
+            double offset = Utils.normalRelativeAngle(actual - waveBearing[w]);
+            double gf = Math.max(-1, Math.min(1, offset / waveEscape[w] * waveDirection[w]));
+            trees[opp].add(waveSituation, w * DIMS, gf);
+            removeWave(w);
+        }
+
+        double bearing = Math.atan2(enemyX - myX, enemyY - myY);
+        double lateral = enemyVelocity * Math.sin(enemyHeading - bearing);
+        if (lateral != 0) {
+            double direction = lateral > 0 ? 1 : -1;
+            if (direction != lastDirection[opp]) directionTime[opp] = time;
+            lastDirection[opp] = direction;
+        }
+        lastScan[opp] = time;
+
+        if (waveCount == MAX_WAVES) return;
+        double speed = Rules.getBulletSpeed(bulletPower);
+        double escape = Math.asin(Rules.MAX_VELOCITY / speed);
+        int w = waveCount++;
+        situation(opp, myX, myY, enemyX, enemyY, enemyHeading, enemyVelocity, bearing,
+                fieldWidth, fieldHeight, waveSituation, w * DIMS);
+        waveOpponent[w] = opp;
+        waveTime[w] = time;
+        waveX[w] = myX;
+        waveY[w] = myY;
+        waveSpeed[w] = speed;
+        waveBearing[w] = bearing;
+        waveDirection[w] = lastDirection[opp];
+        waveEscape[w] = escape;
+        waveKnnAngle[w] = bestAngle(opp, waveSituation, w * DIMS, bearing, lastDirection[opp], escape);
+        waveSolverAngle[w] = solverAngle;
+    }
+
+    /**
+     * Ângulo absoluto de tiro pelo guess factor mais denso entre os vizinhos,
+     * ou NaN se a memória do oponente ainda é pequena ou se a mira preditiva
+     * vem acertando mais esse oponente (aí use outra mira).
+     */
+    public double aim(int opp, double myX, double myY, double enemyX, double enemyY,
+                      double enemyHeading, double enemyVelocity, double bulletPower,
+                      double fieldWidth, double fieldHeight) {
+        if (opp < 0 || knnHits[opp] <= solverHits[opp]) return Double.NaN;
+        double bearing = Math.atan2(enemyX - myX, enemyY - myY);
+        double lateral = enemyVelocity * Math.sin(enemyHeading - bearing);
+        double direction = lateral != 0 ? (lateral > 0 ? 1 : -1) : lastDirection[opp];
+        double escape = Math.asin(Rules.MAX_VELOCITY / Rules.getBulletSpeed(bulletPower));
+        situation(opp, myX, myY, enemyX, enemyY, enemyHeading, enemyVelocity, bearing,
+                fieldWidth, fieldHeight, query, 0);
+        return bestAngle(opp, query, 0, bearing, direction, escape);
+    }
+
+    private double bestAngle(int opp, double[] situation, int offset, double bearing,
+                             double direction, double escape) {
+        KdTree tree = trees[opp];
+        if (tree.size() < MIN_POINTS) return Double.NaN;
+        int n = tree.nearest(situation, offset, WEIGHTS, K);
+        double[] gfs = tree.resultValue;
+        double[] dists = tree.resultDistance;
+
+        // Largura do kernel: meio robô, em guess factor, na distância atual
+        double distance = situation[offset + DIST] * 1000;
+        double width = HALF_BOT / Math.max(HALF_BOT, distance) / escape;
+        double inverse = 1 / (width * width);
+
+        double bestGf = 0;
+        double bestDensity = -1;
+        for (int i = 0; i < n; i++) {
+            double density = 0;
+            for (int j = 0; j < n; j++) {
+                double u = gfs[i] - gfs[j];
+                density += 1 / ((1 + u * u * inverse) * (1 + dists[j]));
+            }
+            if (density > bestDensity) {
+                bestDensity = density;
+                bestGf = gfs[i];
+            }
+        }
+        return bearing + direction * bestGf * escape;
+    }
+
+    /** A situação do inimigo, escalada, em out[offset..offset+DIMS). */
+    private void situation(int opp, double myX, double myY, double enemyX, double enemyY,
+                           double enemyHeading, double enemyVelocity, double bearing,
+                           double fieldWidth, double fieldHeight, double[] out, int offset) {
+        double relative = enemyHeading - bearing;
+        double lateral = enemyVelocity * Math.sin(relative);
+        double advancing = -enemyVelocity * Math.cos(relative);
+        double wall = Math.min(Math.min(enemyX, fieldWidth - enemyX), Math.min(enemyY, fieldHeight - enemyY));
+        double sinceTurn = lastScan[opp] - directionTime[opp];
+        out[offset + DIST] = Math.hypot(enemyX - myX, enemyY - myY) / 1000;
+        out[offset + LATERAL] = Math.abs(lateral) / Rules.MAX_VELOCITY;
+        out[offset + ADVANCING] = (advancing + Rules.MAX_VELOCITY) / (2 * Rules.MAX_VELOCITY);
+        out[offset + WALL] = Math.min(wall, 300) / 300;
+        out[offset + SINCE_TURN] = sinceTurn / (sinceTurn + 20);
+    }
+
+    private void removeWave(int w) {
+        int last = --waveCount;
+        if (w == last) return;
+        waveOpponent[w] = waveOpponent[last];
+        waveTime[w] = waveTime[last];
+        waveX[w] = waveX[last];
+        waveY[w] = waveY[last];
+        waveSpeed[w] = waveSpeed[last];
+        waveBearing[w] = waveBearing[last];
+        waveDirection[w] = waveDirection[last];
+        waveEscape[w] = waveEscape[last];
+        waveKnnAngle[w] = waveKnnAngle[last];
+        waveSolverAngle[w] = waveSolverAngle[last];
+        System.arraycopy(waveSituation, last * DIMS, waveSituation, w * DIMS, DIMS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * LearningMetrics - Como o aprendizado anda, uma linha por rodada.
+ *
+ * O cérebro conta o erro de Bellman (TD) de cada learn e os estados vistos
+ * pela primeira vez (nenhuma visita ainda); o robô conta as ações escolhidas,
+ * a recompensa de cada tipo de evento, quanto tempo ficou vivo e a idade
+ * média e máxima dos scans (do RadarScheduler). Tudo em
+ * contadores e arrays pré-alocados: nada é criado por turno.
+ *
+ * flush() anexa a rodada num CSV da pasta de dados (cabeçalho na primeira
+ * linha) e zera os contadores. Com td_medio e estados_novos parando de cair
+ * e a taxa de vitória parada, o treino estabilizou. O replay não entra na
+ * conta: as transições dele já foram contadas quando aconteceram. São uns
+ * 70 bytes por rodada; no Robocode, de olho na cota da pasta de dados.
+ *
+ * Uma instância por robô (static, como o TickProfiler); o ConcurrentQBrain
+ * não recebe métricas, porque é de todas as threads do treino paralelo.
+ */
+public final class LearningMetrics {
+
+    private final String[] actionNames;
+    private final String[] rewardNames;
+
+    private final int[] actions;
+    private final double[] rewards;
+    private int updates = 0;
+    private double tdSum = 0;
+    private double tdMax = 0;
+    private int newStates = 0;
+    private long ticksAlive = -1; // -1: rodada ainda sem fim
+    private boolean won = false;
+    private double radarMean = 0;
+    private long radarMax = 0;
+
+    /** Nomes das ações e dos tipos de recompensa, na ordem dos índices. */
+    public LearningMetrics(String[] actionNames, String[] rewardNames) {
+        this.actionNames = actionNames;
+        this.rewardNames = rewardNames;
+        this.actions = new int[actionNames.length];
+        this.rewards = new double[rewardNames.length];
+    }
+
+    /** Um learn: erro de Bellman antes da atualização; fresh = estado nunca visitado. */
+    public void learned(double tdError, boolean fresh) {
+        double e = Math.abs(tdError);
+        tdSum += e;
+        if (e > tdMax) tdMax = e;
+        updates++;
+        if (fresh) newStates++;
+    }
+
+    public void action(int action) {
+        actions[action]++;
+    }
+
+    public void reward(int type, double amount) {
+        rewards[type] += amount;
+    }
+
+    /** Idade dos scans na rodada (turnos): média e máxima. */
+    public void radar(double meanAge, long maxAge) {
+        radarMean = meanAge;
+        radarMax = maxAge;
+    }
+
+    /** Chamar no onDeath/onWin. */
+    public void finish(long ticks, boolean victory) {
+        ticksAlive = ticks;
+        won = victory;
+    }
+
+    /**
+     * Anexa a rodada ao CSV e zera tudo. now: turno atual, vale como tempo
+     * de vida se a rodada acabou sem onDeath/onWin.
+     */
+    public void flush(File file, int round, long now) {
+        StringBuilder line = new StringBuilder(128);
+        if (!file.exists() || file.length() == 0) {
+            line.append("rodada,venceu,turnos_vivo,atualizacoes,td_medio,td_max,estados_novos,radar_idade_media,radar_idade_max");
+            for (String name : actionNames) line.append(",acao_").append(name);
+            for (String name : rewardNames) line.append(",rec_").append(name);
+            line.append('\n');
+        }
+        line.append(round).append(',').append(won ? 1 : 0).append(',').append(ticksAlive >= 0 ? ticksAlive : now)
+                .append(',').append(updates)
+                .append(',').append(String.format(Locale.ROOT, "%.3f", updates == 0 ? 0.0 : tdSum / updates))
+                .append(',').append(String.format(Locale.ROOT, "%.3f", tdMax))
+                .append(',').append(newStates)
+                .append(',').append(String.format(Locale.ROOT, "%.2f", radarMean))
+                .append(',').append(radarMax);
+        for (int count : actions) line.append(',').append(count);
+        for (double total : rewards) line.append(',').append(String.format(Locale.ROOT, "%.1f", total));
+        line.append('\n');
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        reset();
+    }
+
+    private void reset() {
+        Arrays.fill(actions, 0);
+        Arrays.fill(rewards, 0);
+        updates = 0;
+        tdSum = 0;
+        tdMax = 0;
+        newStates = 0;
+        ticksAlive = -1;
+        won = false;
+        radarMean = 0;
+        radarMax = 0;
+    }
+}
\ No newline at end of file
@@ -11,11 +11,24 @@ import java.util.HashMap;
  * MasterBot - O Profissional.
  * Estrutura IDÊNTICA ao TrainerBot para garantir compatibilidade do cérebro.
  * Apenas carrega o arquivo brain.dat e executa a melhor ação.
+ * O cérebro é compilado numa GreedyPolicy no carregamento: a decisão do
+ * turno é só uma leitura de array.
  */
 public class MasterBot extends AdvancedRobot {
 
-    private static QBrain brain;
+    private static GreedyPolicy policy;
     private static final String BRAIN_FILE = "brain.dat";
+    private static final String PROFILE_FILE = "tick-profile.txt";
+
+    // Tempo por fase de cada turno; resumo no tick-profile.txt ao fim da batalha
+    private static final TickProfiler profiler = new TickProfiler();
+
+    // Mira por guess factor: histogramas por oponente, valem a batalha toda
+    private static final GuessFactorGun gun = new GuessFactorGun();
+    private static final String GUN_FILE = "gf-stats.dat";
+    private static final double WAVE_POWER = 2.0; // potência das balas virtuais
+    // Mira por vizinhos: memória de situações por oponente, vale a batalha toda
+    private static final KnnGun knn = new KnnGun();
 
     // Ações
     public static final int ACTION_ANTIGRAVITY = 0;
@@ -23,25 +36,68 @@ public class MasterBot extends AdvancedRobot {
     public static final int ACTION_CAMP_CORNER = 2;
     public static final int ACTION_SPIN_RADAR = 3;
     public static final int TOTAL_ACTIONS = 4;
+    // Estado que o treino nunca viu: esquiva, a ação mais segura sem informação
+    private static final int FALLBACK_ACTION = ACTION_ANTIGRAVITY;
+
+    // Espaço de estados (Sincronizado com TrainerBot)
+    private static final StateSpace STATES = new StateSpace("-",
+            new String[]{"CLOSE", "MID", "FAR"},
+            new String[]{"HIGH", "MID", "LOW"},
+            new String[]{"CROWD", "FEW", "DUEL"});
 
     private HashMap<String, EnemyBot> enemies = new HashMap<>();
     private static final double WALL_STICK = 140;
+    private static final long STALE_TICKS = 60;  // sem scan há mais que isso: inimigo ignorado
+    private final int[] stateBuckets = new int[3];
 
     private static class EnemyBot {
+        int id; // índice no RiskGrid
+        int gf; // índice no GuessFactorGun
+        int knn; // índice no KnnGun
         Point2D.Double pos = new Point2D.Double();
         double heading;
         double velocity;
+        double turnRate; // radianos por turno, medido entre scans
         double energy;
         long lastSeenTime;
     }
 
+    // Mira preditiva (linear / circular), sem alocação por tiro
+    private final AimSolver aim = new AimSolver();
+
+    // Tiros inimigos (quedas de energia) como ondas; a anti-gravidade desvia delas
+    private final WaveTracker waves = new WaveTracker();
+
+    // Radar: giro inicial e depois o arco mínimo que refresca os mais velhos
+    private final RadarScheduler radar = new RadarScheduler();
+
+    // Risco do campo (anti-gravidade) e suavização de parede; criados no
+    // primeiro uso porque precisam do tamanho do campo
+    private RiskGrid risk;
+    private WallSmoother walls;
+    private int nextEnemyId = 0;
+
     public void run() {
-        if (brain == null) {
-            brain = new QBrain(TOTAL_ACTIONS);
-            try { brain.load(getDataFile(BRAIN_FILE)); } catch (Exception e) {
-                out.println("AVISO: Cérebro não encontrado! Copie o brain.dat da pasta do TrainerBot.");
+        if (policy == null) {
+            // Política congelada: só as constantes de movimento valem aqui
+            Tuning tuning = Tuning.load(getDataFile(Tuning.FILE));
+            RiskGrid.configure(tuning);
+            tuning.warnUnused();
+            QBrain brain = QBrain.create(STATES, TOTAL_ACTIONS);
+            // O load não reclama de arquivo que falta: quem avisa é o robô
+            File brainFile = getDataFile(BRAIN_FILE);
+            if (!brainFile.exists()) {
+                out.println("AVISO: Cérebro não encontrado! Copie o brain.dat da pasta do TrainerBot"
+                        + " (e o brain.dat.journal, se a batalha dele não terminou).");
             }
+            brain.load(brainFile);
+            policy = brain.compilePolicy(FALLBACK_ACTION);
+            out.println("Política compilada: " + policy.size() + " estados, "
+                    + policy.unseen() + " sem treino (ação padrão)");
+            gun.load(getDataFile(GUN_FILE));
         }
+        gun.newRound();
+        knn.newRound();
 
         // Cores de Elite (Preto e Dourado/Amarelo)
         setBodyColor(Color.BLACK);
@@ -54,36 +110,52 @@ public class MasterBot extends AdvancedRobot {
         setAdjustRadarForGunTurn(true);
         setAdjustRadarForRobotTurn(true);
 
+        profiler.startTick();
         while (true) {
+            int p = profiler.enter(TickProfiler.RADAR);
             radarLogic();
+            profiler.exit(p);
             
-            // FALSE = Sem exploração, apenas a melhor estratégia aprendida
-            String currentState = getState();
-            int bestAction = brain.getAction(currentState, false);
+            // Sem exploração: só a ação gulosa, compilada no carregamento
+            p = profiler.enter(TickProfiler.STATE);
+            int currentState = getState();
+            profiler.exit(p);
+            p = profiler.enter(TickProfiler.LEARN);
+            int bestAction = policy.getAction(currentState);
+            profiler.exit(p);
             
+            p = profiler.enter(TickProfiler.STRATEGY);
             executeAction(bestAction);
-            execute();
+            profiler.exit(p);
+            endTurn();
         }
     }
 
+    private void endTurn() {
+        profiler.endTick();
+        execute();
+        profiler.startTick();
+    }
+
     // ===== SENSORES (Sincronizado com TrainerBot) =====
-    private String getState() {
+    private int getState() {
         double minDist = Double.POSITIVE_INFINITY;
         int othersCount = 0;
         long currentTime = getTime();
         for (EnemyBot en : enemies.values()) {
-            if (currentTime - en.lastSeenTime > 60) continue;
+            if (currentTime - en.lastSeenTime > STALE_TICKS) continue;
             othersCount++;
             double d = en.pos.distance(getX(), getY());
             if (d < minDist) minDist = d;
         }
         if (minDist == Double.POSITIVE_INFINITY) minDist = 1000;
 
-        String distStr = (minDist < 250) ? "CLOSE" : (minDist < 600) ? "MID" : "FAR";
-        String energyStr = (getEnergy() > 60) ? "HIGH" : (getEnergy() > 25) ? "MID" : "LOW";
-        String enemiesStr = (othersCount > 4) ? "CROWD" : (othersCount > 1) ? "FEW" : "DUEL";
+        // Índices na mesma ordem dos rótulos de STATES
+        stateBuckets[0] = (minDist < 250) ? 0 : (minDist < 600) ? 1 : 2;
+        stateBuckets[1] = (getEnergy() > 60) ? 0 : (getEnergy() > 25) ? 1 : 2;
+        stateBuckets[2] = (othersCount > 4) ? 0 : (othersCount > 1) ? 1 : 2;
 
-        return distStr + "-" + energyStr + "-" + enemiesStr;
+        return STATES.encode(stateBuckets);
     }
 
     // ===== EXECUTOR DE AÇÕES (Sincronizado com TrainerBot) =====
@@ -110,27 +182,17 @@ public class MasterBot extends AdvancedRobot {
 
     // --- Movimento & Tiro ---
     private void doAntiGravityMove() {
-        double xForce = 0, yForce = 0;
+        // Destino de menor risco em volta (inimigos + paredes + ondas), lido do RiskGrid
         double myX = getX(), myY = getY();
-        for (EnemyBot en : enemies.values()) {
-            if (getTime() - en.lastSeenTime > 40) continue;
-            double absBearing = Math.atan2(en.pos.y - myY, en.pos.x - myX);
-            double dist = en.pos.distance(myX, myY);
-            double force = -1200 / (dist * dist); 
-            xForce += Math.sin(absBearing) * force;
-            yForce += Math.cos(absBearing) * force;
-        }
-        xForce -= 5000 / Math.pow(myX, 3); 
-        xForce += 5000 / Math.pow(getBattleFieldWidth() - myX, 3); 
-        yForce -= 5000 / Math.pow(myY, 3); 
-        yForce += 5000 / Math.pow(getBattleFieldHeight() - myY, 3); 
-        goTo(wallSmoothing(myX, myY, Math.atan2(xForce, yForce), 1));
+        waves.update(getTime(), myX, myY);
+        risk().expire(getTime(), STALE_TICKS);
+        goTo(wallSmoothing(myX, myY, risk().bestAngle(myX, myY, waves), 1));
     }
 
     private void doRushdownMove() {
         EnemyBot target = getNearestEnemy();
         if (target != null) {
-            double absBearing = Math.atan2(target.pos.y - getY(), target.pos.x - getX());
+            double absBearing = Math.atan2(target.pos.x - getX(), target.pos.y - getY());
             double angle = absBearing + (Math.random() > 0.5 ? 0.4 : -0.4);
             goTo(wallSmoothing(getX(), getY(), angle, 1));
             smartFire(target, 3.0);
@@ -148,46 +210,43 @@ public class MasterBot extends AdvancedRobot {
             double d = Point2D.distance(getX(), getY(), p[0], p[1]);
             if(d < minDist) { minDist = d; tx = p[0]; ty = p[1]; }
         }
-        goTo(Math.atan2(ty - getY(), tx - getX()));
+        // Sonda curta perto do destino, senão a suavização não deixa encostar no canto
+        double angle = Math.atan2(tx - getX(), ty - getY());
+        goTo(walls().smooth(getX(), getY(), angle, 0, Math.min(WALL_STICK, minDist)));
     }
 
     private void smartFire(EnemyBot target, double power) {
         if (target == null) return;
+        int prev = profiler.enter(TickProfiler.AIM);
+        radar.focus(target.id);
         if (getEnergy() < 10) power = 0.5;
         double bulletSpeed = 20 - 3 * power;
-        double nextX = target.pos.x, nextY = target.pos.y;
-        for (int i = 0; i < 15; i++) {
-            double dist = Point2D.distance(getX(), getY(), nextX, nextY);
-            double timeToHit = dist / bulletSpeed;
-            nextX = target.pos.x + Math.sin(target.heading) * target.velocity * timeToHit;
-            nextY = target.pos.y + Math.cos(target.heading) * target.velocity * timeToHit;
-            nextX = Math.max(18, Math.min(getBattleFieldWidth() - 18, nextX));
-            nextY = Math.max(18, Math.min(getBattleFieldHeight() - 18, nextY));
+        double w = getBattleFieldWidth(), h = getBattleFieldHeight();
+        // Vizinhos ou guess factor quando estão acertando mais que a preditiva;
+        // senão mira preditiva (ângulo na convenção do Robocode, atan2(dx, dy),
+        // circular se o alvo vira)
+        double absBearing = knn.aim(target.knn, getX(), getY(), target.pos.x, target.pos.y,
+                target.heading, target.velocity, power, w, h);
+        if (Double.isNaN(absBearing)) {
+            absBearing = gun.aim(target.gf, getX(), getY(), target.pos.x, target.pos.y,
+                    target.heading, target.velocity, power, w, h);
+        }
+        if (Double.isNaN(absBearing)) {
+            absBearing = aim.solve(getX(), getY(), target.pos.x, target.pos.y, target.heading,
+                    target.velocity, target.turnRate, bulletSpeed, w, h);
         }
-        double absBearing = Math.atan2(nextY - getY(), nextX - getX());
         setTurnGunRightRadians(Utils.normalRelativeAngle(absBearing - getGunHeadingRadians()));
-        if (getGunHeat() == 0 && Math.abs(getGunTurnRemaining()) < 10) fire(power);
+        // setFire: sai no execute do turno; fire() gastaria um turno extra aqui dentro
+        if (getGunHeat() == 0 && Math.abs(getGunTurnRemaining()) < 10) setFire(power);
+        profiler.exit(prev);
     }
 
     private void radarLogic() {
-        double radarTurn = Double.POSITIVE_INFINITY;
-        long maxTime = 0;
-        for (EnemyBot en : enemies.values()) {
-            if (getTime() - en.lastSeenTime > maxTime) {
-                maxTime = getTime() - en.lastSeenTime;
-                double absBearing = Math.atan2(en.pos.y - getY(), en.pos.x - getX());
-                radarTurn = Utils.normalRelativeAngle(absBearing - getRadarHeadingRadians());
-            }
-        }
-        setTurnRadarRightRadians(radarTurn + (radarTurn < 0 ? -0.2 : 0.2));
+        setTurnRadarRightRadians(radar.turn(getTime(), getX(), getY(), getRadarHeadingRadians(), getOthers()));
     }
 
     private double wallSmoothing(double x, double y, double angle, int orientation) {
-        double testX = x + Math.sin(angle) * WALL_STICK;
-        double testY = y + Math.cos(angle) * WALL_STICK;
-        if (testX > 18 && testX < getBattleFieldWidth() - 18 && testY > 18 && testY < getBattleFieldHeight() - 18) 
-            return angle;
-        return wallSmoothing(x, y, angle + 0.05 * orientation, orientation);
+        return walls().smooth(x, y, angle, orientation, WALL_STICK);
     }
 
     private void goTo(double angle) {
@@ -202,22 +261,64 @@ public class MasterBot extends AdvancedRobot {
         setTurnRightRadians(turnAngle);
     }
     
+    private WallSmoother walls() {
+        if (walls == null) walls = new WallSmoother(getBattleFieldWidth(), getBattleFieldHeight(), 18);
+        return walls;
+    }
+
+    private RiskGrid risk() {
+        if (risk == null) risk = new RiskGrid(getBattleFieldWidth(), getBattleFieldHeight());
+        return risk;
+    }
+
     private EnemyBot getNearestEnemy() {
         double minDist = Double.POSITIVE_INFINITY;
         EnemyBot target = null;
         for (EnemyBot en : enemies.values()) {
-            if (getTime() - en.lastSeenTime > 60) continue;
+            if (getTime() - en.lastSeenTime > STALE_TICKS) continue;
             double d = en.pos.distance(getX(), getY());
             if (d < minDist) { minDist = d; target = en; }
         }
         return target;
     }
 
+    @Override
+    public void onSkippedTurn(SkippedTurnEvent e) {
+        profiler.onSkippedTurn();
+    }
+    // Energia dos inimigos que não foi tiro: o WaveTracker desconta
+    @Override
+    public void onBulletHit(BulletHitEvent e) {
+        EnemyBot en = enemies.get(e.getName());
+        if (en != null) waves.onBulletHit(en.id, e.getBullet().getPower());
+    }
+    @Override
+    public void onHitByBullet(HitByBulletEvent e) {
+        EnemyBot en = enemies.get(e.getName());
+        if (en != null) waves.onHitByBullet(en.id, e.getPower(), getTime(), getX(), getY());
+    }
+    @Override
+    public void onHitRobot(HitRobotEvent e) {
+        EnemyBot en = enemies.get(e.getName());
+        if (en != null) waves.onHitRobot(en.id);
+    }
+    @Override
+    public void onRoundEnded(RoundEndedEvent e) {
+        out.printf("Radar: idade média %.1f turnos, máxima %d%n", radar.meanAge(), radar.maxAge());
+    }
+
+    @Override
+    public void onBattleEnded(BattleEndedEvent e) {
+        profiler.writeSummary(getDataFile(PROFILE_FILE), getClass().getSimpleName());
+        gun.save(getDataFile(GUN_FILE));
+    }
+
     @Override
     public void onScannedRobot(ScannedRobotEvent e) {
         String name = e.getName();
         EnemyBot en = enemies.get(name);
-        if (en == null) { en = new EnemyBot(); enemies.put(name, en); }
+        if (en == null) { en = new EnemyBot(); en.id = nextEnemyId++; en.gf = gun.opponent(name); en.knn = knn.opponent(name); enemies.put(name, en); }
+        else en.turnRate = AimSolver.turnRate(en.turnRate, en.heading, e.getHeadingRadians(), getTime() - en.lastSeenTime);
         double absBearing = getHeadingRadians() + e.getBearingRadians();
         en.pos.x = getX() + e.getDistance() * Math.sin(absBearing);
         en.pos.y = getY() + e.getDistance() * Math.cos(absBearing);
@@ -225,7 +326,27 @@ public class MasterBot extends AdvancedRobot {
         en.heading = e.getHeadingRadians();
         en.velocity = e.getVelocity();
         en.lastSeenTime = getTime();
+        risk().moveEnemy(en.id, en.pos.x, en.pos.y, en.lastSeenTime);
+        radar.onScan(en.id, en.lastSeenTime, en.pos.x, en.pos.y);
+        double w = getBattleFieldWidth(), h = getBattleFieldHeight();
+        waves.onScan(en.id, en.lastSeenTime, en.pos.x, en.pos.y, en.energy, en.velocity,
+                getX(), getY(), getHeadingRadians(), getVelocity(), w, h);
+        // Onda virtual; leva junto o tiro da preditiva para comparar as duas miras
+        double solverAngle = aim.solve(getX(), getY(), en.pos.x, en.pos.y, en.heading, en.velocity,
+                en.turnRate, Rules.getBulletSpeed(WAVE_POWER), w, h);
+        gun.onScan(en.gf, en.lastSeenTime, getX(), getY(), en.pos.x, en.pos.y, en.heading, en.velocity,
+                WAVE_POWER, solverAngle, w, h);
+        knn.onScan(en.knn, en.lastSeenTime, getX(), getY(), en.pos.x, en.pos.y, en.heading, en.velocity,
+                WAVE_POWER, solverAngle, w, h);
     }
     @Override
-    public void onRobotDeath(RobotDeathEvent e) { enemies.remove(e.getName()); }
+    public void onRobotDeath(RobotDeathEvent e) {
+        EnemyBot en = enemies.remove(e.getName());
+        if (en == null) return;
+        risk().removeEnemy(en.id);
+        gun.dropWaves(en.gf);
+        knn.dropWaves(en.knn);
+        waves.forget(en.id);
+        radar.forget(en.id);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package MeleeLearning;
+
+/**
+ * StateSpace - Codifica o estado discretizado em um int compacto.
+ *
+ * Cada dimensão (distância, energia, nº de inimigos, parede...) tem uma lista
+ * fixa de "buckets". O estado é o número em base mista formado pelos índices
+ * dos buckets, de 0 até size()-1, e serve direto como linha da tabela Q:
+ * sem montar String, sem hash e sem boxing no loop do robô.
+ *
+ * Os rótulos só existem para depuração e para importar cérebros antigos, que
+ * usavam chaves String como "CLOSE-HIGH-DUEL".
+ */
+public class StateSpace {
+
+    private final String separator;
+    private final String[][] labels;
+    private final int size;
+
+    public StateSpace(String separator, String[]... labels) {
+        this.separator = separator;
+        this.labels = labels;
+        int s = 1;
+        for (String[] dim : labels) {
+            s *= dim.length;
+        }
+        this.size = s;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return labels.length;
+    }
+
+    /**
+     * Empacota os índices de cada dimensão (buckets[i] em 0..bucketsOf(i)-1).
+     * O array é do chamador, para poder ser reaproveitado a cada tick.
+     */
+    public int encode(int[] buckets) {
+        int state = 0;
+        for (int i = 0; i < labels.length; i++) {
+            state = state * labels[i].length + buckets[i];
+        }
+        return state;
+    }
+
+    public int bucketsOf(int dimension) {
+        return labels[dimension].length;
+    }
+
+    /**
+     * Identificador do "formato" do estado: muda se qualquer rótulo, ordem ou
+     * separador mudar. Vai no cabeçalho do arquivo do cérebro para não carregar
+     * uma tabela codificada com outro espaço de estados.
+     */
+    public int schemaId() {
+        int h = separator.hashCode();
+        for (String[] dim : labels) {
+            h = 31 * h + dim.length;
+            for (String label : dim) {
+                h = 31 * h + label.hashCode();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Converte uma chave antiga (ex.: "MID|HIGH|FEW|WALL") no estado codificado.
+     * Retorna -1 se a chave não pertence a este espaço.
+     */
+    public int parse(String key) {
+        if (key == null) return -1;
+        int state = 0;
+        int start = 0;
+        for (int i = 0; i < labels.length; i++) {
+            int end = (i == labels.length - 1) ? key.length() : key.indexOf(separator, start);
+            if (end < 0) return -1;
+            int bucket = indexOf(labels[i], key.substring(start, end));
+            if (bucket < 0) return -1;
+            state = state * labels[i].length + bucket;
+            start = end + separator.length();
+        }
+        return state;
+    }
+
+    /** Caminho inverso de encode(), só para logs. */
+    public String describe(int state) {
+        String[] parts = new String[labels.length];
+        for (int i = labels.length - 1; i >= 0; i--) {
+            parts[i] = labels[i][state % labels[i].length];
+            state /= labels[i].length;
+        }
+        return String.join(separator, parts);
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * TickProfiler - Quanto de cada turno vai em cada fase do robô.
+ *
+ * O robô marca o começo do turno (startTick, logo depois do execute), troca
+ * de fase com enter/exit e fecha o turno (endTick, logo antes do execute).
+ * O tempo é exclusivo: uma fase aninhada (mira dentro da estratégia) sai da
+ * conta da fase de fora. O que os handlers de evento marcam (o save, por
+ * exemplo) entra no turno seguinte, como no Robocode. Tudo vai para
+ * histogramas em potências de 2 de nanossegundos, em long[] pré-alocado;
+ * nada é criado por turno.
+ *
+ * SkippedTurnEvent chega no turno seguinte ao estouro, então a culpa vai
+ * para a fase mais cara do último turno fechado. writeSummary() grava o
+ * resumo da batalha (chamar no onBattleEnded).
+ */
+public final class TickProfiler {
+
+    public static final int STATE = 0;    // montar o estado
+    public static final int RADAR = 1;
+    public static final int STRATEGY = 2; // movimento da ação escolhida
+    public static final int AIM = 3;      // mira e tiro
+    public static final int LEARN = 4;    // decisão, learn/replay e save
+    public static final int OTHER = 5;    // o que não foi marcado
+    public static final int PHASES = 6;
+
+    // Entre endTick e startTick (dentro do execute): tempo do motor, não conta
+    private static final int IDLE = -1;
+
+    private static final String[] NAMES = {"estado", "radar", "estrategia", "mira", "aprendizado", "outros"};
+
+    // Balde b guarda durações em [2^(b-1), 2^b) ns; o último junta tudo acima
+    private static final int BUCKETS = 40;
+
+    private final long[][] histogram = new long[PHASES][BUCKETS];
+    private final long[] totalNanos = new long[PHASES];
+    private final long[] maxNanos = new long[PHASES];
+    private final long[] tickNanos = new long[PHASES];  // turno corrente
+    private final long[] lastTick = new long[PHASES];   // último turno fechado
+    private final long[] tickHistogram = new long[BUCKETS];
+    private final int[] skippedBy = new int[PHASES];
+
+    private int current = IDLE;
+    private long mark = 0;
+    private long ticks = 0;
+    private long maxTick = 0;
+    private int skipped = 0;
+
+    /** Começo do turno do robô (depois do execute). */
+    public void startTick() {
+        current = OTHER;
+        mark = System.nanoTime();
+    }
+
+    /** Entra numa fase; devolve a fase anterior, para passar ao exit. */
+    public int enter(int phase) {
+        long now = System.nanoTime();
+        if (current != IDLE) tickNanos[current] += now - mark;
+        mark = now;
+        int previous = current;
+        current = phase;
+        return previous;
+    }
+
+    public void exit(int previous) {
+        long now = System.nanoTime();
+        if (current != IDLE) tickNanos[current] += now - mark;
+        mark = now;
+        current = previous;
+    }
+
+    /** Fim do turno do robô (antes do execute): joga o turno nos histogramas. */
+    public void endTick() {
+        if (current != IDLE) tickNanos[current] += System.nanoTime() - mark;
+        current = IDLE;
+        long total = 0;
+        for (int p = 0; p < PHASES; p++) {
+            long ns = tickNanos[p];
+            lastTick[p] = ns;
+            tickNanos[p] = 0;
+            if (ns == 0) continue;
+            total += ns;
+            histogram[p][bucket(ns)]++;
+            totalNanos[p] += ns;
+            if (ns > maxNanos[p]) maxNanos[p] = ns;
+        }
+        tickHistogram[bucket(total)]++;
+        if (total > maxTick) maxTick = total;
+        ticks++;
+    }
+
+    /** Chamar no onSkippedTurn: culpa a fase mais cara do último turno. */
+    public void onSkippedTurn() {
+        int worst = OTHER;
+        for (int p = 0; p < PHASES; p++) {
+            if (lastTick[p] > lastTick[worst]) worst = p;
+        }
+        skippedBy[worst]++;
+        skipped++;
+    }
+
+    private static int bucket(long ns) {
+        int b = 64 - Long.numberOfLeadingZeros(ns);
+        return Math.min(b, BUCKETS - 1);
+    }
+
+    /** Limite superior (ns) do balde onde fica o percentil q. */
+    private static long percentile(long[] hist, double q) {
+        long count = 0;
+        for (long c : hist) count += c;
+        if (count == 0) return 0;
+        long target = (long) Math.ceil(count * q);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += hist[b];
+            if (seen >= target) return 1L << b;
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    public void writeSummary(File file, String botName) {
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            w.printf("%s: %d turnos, %d pulados, pior turno %.1f us%n",
+                    botName, ticks, skipped, maxTick / 1000.0);
+            w.printf("turno inteiro: p50 <= %.1f us, p99 <= %.1f us%n",
+                    percentile(tickHistogram, 0.5) / 1000.0, percentile(tickHistogram, 0.99) / 1000.0);
+            w.println();
+            w.println("fase          turnos    media(us)  p50<=(us)  p99<=(us)   max(us)  pulos");
+            for (int p = 0; p < PHASES; p++) {
+                long n = 0;
+                for (long c : histogram[p]) n += c;
+                double mean = n == 0 ? 0 : totalNanos[p] / 1000.0 / n;
+                w.printf("%-12s %8d %11.2f %10.1f %10.1f %9.1f %6d%n", NAMES[p], n, mean,
+                        percentile(histogram[p], 0.5) / 1000.0, percentile(histogram[p], 0.99) / 1000.0,
+                        maxNanos[p] / 1000.0, skippedBy[p]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package MeleeLearning;
+
+/**
+ * TileCoder - Codifica features contínuas em tiles ativos (tile coding).
+ *
+ * É o par contínuo do StateSpace: em vez de um bucket por dimensão, cada
+ * feature (distância, energia, calor do canhão...) cai numa faixa de
+ * "tilings" grades sobrepostas, cada uma deslocada um pouco. Um ponto ativa
+ * exatamente um tile por tiling; pontos próximos dividem a maioria dos
+ * tiles, e é isso que faz o aprendizado generalizar.
+ *
+ * A grade conjunta de todas as features cresce rápido (6 features x 5
+ * faixas = 15625 tiles por tiling), então as coordenadas são espalhadas por
+ * hash numa memória fixa de 2^memoryBits tiles. Colisões existem, mas são
+ * raras para o que um robô visita, e a memória não depende de quantas
+ * features entram.
+ */
+public class TileCoder {
+
+    private final String[] names;
+    private final double[] min;
+    private final double[] scale; // faixas por unidade da feature
+    private final int[] tiles;
+    private final int tilings;
+    private final int memoryBits;
+    private final int mask;
+
+    /**
+     * names/min/max/tilesPerFeature: uma entrada por feature. Valores fora
+     * de [min, max] são presos na borda.
+     */
+    public TileCoder(int tilings, int memoryBits, String[] names, double[] min, double[] max,
+                     int[] tilesPerFeature) {
+        this.names = names;
+        this.min = min;
+        this.tiles = tilesPerFeature;
+        this.tilings = tilings;
+        this.memoryBits = memoryBits;
+        this.mask = (1 << memoryBits) - 1;
+        this.scale = new double[names.length];
+        for (int i = 0; i < names.length; i++) {
+            scale[i] = tilesPerFeature[i] / (max[i] - min[i]);
+        }
+    }
+
+    public int features() {
+        return names.length;
+    }
+
+    public int tilings() {
+        return tilings;
+    }
+
+    /** Quantos tiles existem (tamanho da memória). */
+    public int size() {
+        return mask + 1;
+    }
+
+    /**
+     * Escreve em out[0..tilings-1] o tile ativo de cada tiling. O array é do
+     * chamador, para ser reaproveitado.
+     */
+    public void activeTiles(double[] features, int[] out) {
+        int n = names.length;
+        for (int t = 0; t < tilings; t++) {
+            int h = t;
+            for (int i = 0; i < n; i++) {
+                double v = (features[i] - min[i]) * scale[i];
+                if (v < 0) v = 0;
+                else if (v > tiles[i]) v = tiles[i];
+                // Deslocamento assimétrico: tiling t anda (2i+1)*t/tilings de faixa na feature i
+                double offset = (double) ((2 * i + 1) * t % tilings) / tilings;
+                h = 31 * h + (int) (v + offset);
+            }
+            h *= 0x9E3779B9;
+            out[t] = (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    /**
+     * Identificador do layout (features, faixas, tilings, memória). Vai no
+     * cabeçalho do arquivo como o schemaId do StateSpace: pesos de outro
+     * layout não são carregados.
+     */
+    public int schemaId() {
+        int h = 31 * tilings + memoryBits;
+        for (int i = 0; i < names.length; i++) {
+            h = 31 * h + names[i].hashCode();
+            h = 31 * h + tiles[i];
+            h = 31 * h + Double.hashCode(min[i]);
+            h = 31 * h + Double.hashCode(scale[i]);
+        }
+        return h;
+    }
+}
\ No newline at end of file
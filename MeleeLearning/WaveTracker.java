@@ -0,0 +1,276 @@
+package MeleeLearning;
+
+import robocode.Rules;
+
+import java.util.Arrays;
+
+/**
+ * WaveTracker - Tiros inimigos deduzidos da energia, como ondas para surfar.
+ *
+ * Atirar custa ao inimigo exatamente a potência da bala, então uma queda de
+ * energia entre dois scans de 0.1 a 3 é um tiro. Antes de comparar, a queda
+ * é corrigida pelo que sabemos que mexeu na energia dele: nossas balas que o
+ * acertaram, as dele que nos acertaram (ele ganha 3x a potência), colisões
+ * conosco e batida na parede (velocidade foi a zero encostado na parede).
+ * Queda dentro do tempo de recarga do canhão dele é descartada: foi outra
+ * coisa (colisão entre inimigos, bala de terceiro).
+ *
+ * Cada tiro vira uma onda saindo de onde o inimigo estava no turno anterior,
+ * com as duas linhas de mira mais comuns: direto em nós (head-on) e
+ * mira linear no nosso movimento. danger() mede o quanto um ponto está
+ * perto dessas linhas, pesado pelo dano da bala e por quanto falta para a
+ * onda chegar lá; o RiskGrid soma isso aos destinos candidatos da
+ * anti-gravidade, e o movimento evasivo desvia das ondas.
+ *
+ * Ondas em arrays paralelos com remoção por troca (MAX_WAVES, cheio: a
+ * mais velha dá lugar), aposentadas quando passam por nós. update() escolhe
+ * no máximo MAX_SURF ondas, as que chegam primeiro, e só elas entram no
+ * danger(): o custo por turno não depende de quantas ondas há no ar. Em
+ * melee muitos tiros não são para nós; a onda não sabe o alvo, só pesa
+ * menos quando a linha de mira passa longe.
+ */
+public final class WaveTracker {
+
+    public static final int MAX_ENEMIES = 64;
+    private static final int MAX_WAVES = 128;
+    private static final int MAX_SURF = 12;
+    private static final double GUN_COOLING = 0.1;  // padrão do Robocode
+    private static final double BOT_WIDTH = 36;     // largura do kernel em volta da linha de mira
+    private static final double URGENCY_TICKS = 10; // onda a 10 turnos pesa metade
+    private static final double WALL_CONTACT = 20;  // centro a isso da parede: encostado
+    private static final double EPS = 1e-6;
+
+    private final AimSolver aim = new AimSolver();
+
+    // Por inimigo
+    private final long[] lastScan = new long[MAX_ENEMIES]; // -1 = sem scan anterior
+    private final double[] lastEnergy = new double[MAX_ENEMIES];
+    private final double[] lastX = new double[MAX_ENEMIES];
+    private final double[] lastY = new double[MAX_ENEMIES];
+    private final double[] lastVelocity = new double[MAX_ENEMIES];
+    private final double[] adjust = new double[MAX_ENEMIES]; // mudança de energia já explicada
+    private final long[] nextFire = new long[MAX_ENEMIES];   // antes disso o canhão está quente
+
+    // Ondas em voo
+    private final int[] waveOwner = new int[MAX_WAVES];
+    private final long[] waveTime = new long[MAX_WAVES]; // turno do tiro
+    private final double[] waveX = new double[MAX_WAVES];
+    private final double[] waveY = new double[MAX_WAVES];
+    private final double[] waveSpeed = new double[MAX_WAVES];
+    private final double[] waveDamage = new double[MAX_WAVES];
+    private final double[] headOnSin = new double[MAX_WAVES];
+    private final double[] headOnCos = new double[MAX_WAVES];
+    private final double[] linearSin = new double[MAX_WAVES];
+    private final double[] linearCos = new double[MAX_WAVES];
+    private int waveCount = 0;
+
+    // Ondas do danger() neste turno, da que chega primeiro para a última
+    private final int[] surf = new int[MAX_SURF];
+    private final double[] surfRadius = new double[MAX_SURF];
+    private final double[] surfArrival = new double[MAX_SURF];
+    private final double[] surfWeight = new double[MAX_SURF]; // dano / urgência
+    private int surfCount = 0;
+
+    public WaveTracker() {
+        newRound();
+    }
+
+    /** Início de rodada: nada em voo, nenhum histórico de energia. */
+    public void newRound() {
+        waveCount = 0;
+        surfCount = 0;
+        Arrays.fill(lastScan, -1);
+        Arrays.fill(nextFire, 0);
+    }
+
+    public int size() {
+        return waveCount;
+    }
+
+    /** Inimigo morreu: para de deduzir tiros dele (as ondas já no ar continuam). */
+    public void forget(int id) {
+        if (id >= 0 && id < MAX_ENEMIES) {
+            lastScan[id] = -1;
+            nextFire[id] = 0;
+        }
+    }
+
+    /** Nossa bala acertou o inimigo: ele perde energia sem ter atirado. */
+    public void onBulletHit(int id, double power) {
+        if (id >= 0 && id < MAX_ENEMIES) adjust[id] -= Rules.getBulletDamage(power);
+    }
+
+    /** Colidimos com ele: os dois perdem ROBOT_HIT_DAMAGE. */
+    public void onHitRobot(int id) {
+        if (id >= 0 && id < MAX_ENEMIES) adjust[id] -= Rules.ROBOT_HIT_DAMAGE;
+    }
+
+    /**
+     * A bala dele nos acertou: ele ganha energia, e a onda desse tiro (a
+     * dele que está passando por nós agora) sai do ar.
+     */
+    public void onHitByBullet(int id, double power, long time, double myX, double myY) {
+        if (id < 0 || id >= MAX_ENEMIES) return;
+        adjust[id] += Rules.getBulletHitBonus(power);
+        int best = -1;
+        double bestGap = Double.POSITIVE_INFINITY;
+        for (int w = 0; w < waveCount; w++) {
+            if (waveOwner[w] != id) continue;
+            double gap = Math.abs((time - waveTime[w]) * waveSpeed[w] - distance(w, myX, myY));
+            if (gap < bestGap) {
+                bestGap = gap;
+                best = w;
+            }
+        }
+        if (best >= 0 && bestGap < 2 * waveSpeed[best]) removeWave(best);
+    }
+
+    /**
+     * Scan do inimigo id. Se a energia caiu o que um tiro custa, solta uma
+     * onda. Devolve true se detectou tiro.
+     */
+    public boolean onScan(int id, long time, double enemyX, double enemyY, double energy, double velocity,
+                          double myX, double myY, double myHeading, double myVelocity,
+                          double fieldWidth, double fieldHeight) {
+        if (id < 0 || id >= MAX_ENEMIES) return false;
+        boolean fired = false;
+        if (lastScan[id] >= 0) {
+            // Parou encostado na parede: bateu, e a batida custou energia
+            if (velocity == 0 && Math.abs(lastVelocity[id]) > 2 && nearWall(enemyX, enemyY, fieldWidth, fieldHeight)) {
+                adjust[id] -= Rules.getWallHitDamage(lastVelocity[id]);
+            }
+            double drop = lastEnergy[id] + adjust[id] - energy;
+            if (drop >= Rules.MIN_BULLET_POWER - EPS && drop <= Rules.MAX_BULLET_POWER + EPS && time >= nextFire[id]) {
+                double power = Math.min(Rules.MAX_BULLET_POWER, Math.max(Rules.MIN_BULLET_POWER, drop));
+                // Atirou no turno anterior, de onde estava: se não o vimos lá, serve a posição de agora
+                boolean consecutive = lastScan[id] == time - 1;
+                fire(id, time - 1, consecutive ? lastX[id] : enemyX, consecutive ? lastY[id] : enemyY,
+                        power, myX, myY, myHeading, myVelocity, fieldWidth, fieldHeight);
+                nextFire[id] = time - 1 + (long) Math.ceil(Rules.getGunHeat(power) / GUN_COOLING);
+                fired = true;
+            }
+        }
+        lastScan[id] = time;
+        lastEnergy[id] = energy;
+        lastX[id] = enemyX;
+        lastY[id] = enemyY;
+        lastVelocity[id] = velocity;
+        adjust[id] = 0;
+        return fired;
+    }
+
+    private void fire(int id, long time, double x, double y, double power, double myX, double myY,
+                      double myHeading, double myVelocity, double fieldWidth, double fieldHeight) {
+        int w = waveCount < MAX_WAVES ? waveCount++ : oldestWave();
+        double speed = Rules.getBulletSpeed(power);
+        waveOwner[w] = id;
+        waveTime[w] = time;
+        waveX[w] = x;
+        waveY[w] = y;
+        waveSpeed[w] = speed;
+        waveDamage[w] = Rules.getBulletDamage(power);
+        double headOn = Math.atan2(myX - x, myY - y);
+        headOnSin[w] = Math.sin(headOn);
+        headOnCos[w] = Math.cos(headOn);
+        double linear = aim.solve(x, y, myX, myY, myHeading, myVelocity, 0, speed, fieldWidth, fieldHeight);
+        linearSin[w] = Math.sin(linear);
+        linearCos[w] = Math.cos(linear);
+    }
+
+    /**
+     * Começo do movimento do turno: aposenta as ondas que já passaram por
+     * nós e separa as MAX_SURF que chegam primeiro para o danger().
+     */
+    public void update(long time, double myX, double myY) {
+        for (int w = waveCount - 1; w >= 0; w--) {
+            if ((time - waveTime[w]) * waveSpeed[w] > distance(w, myX, myY) + BOT_WIDTH) removeWave(w);
+        }
+        surfCount = 0;
+        for (int w = 0; w < waveCount; w++) {
+            double radius = (time - waveTime[w]) * waveSpeed[w];
+            double arrival = Math.max(0, distance(w, myX, myY) - radius) / waveSpeed[w];
+            // Inserção ordenada por chegada; cheio, só entra se chega antes da última
+            if (surfCount == MAX_SURF && arrival >= surfArrival[MAX_SURF - 1]) continue;
+            int i = surfCount < MAX_SURF ? surfCount++ : MAX_SURF - 1;
+            while (i > 0 && surfArrival[i - 1] > arrival) {
+                surf[i] = surf[i - 1];
+                surfRadius[i] = surfRadius[i - 1];
+                surfArrival[i] = surfArrival[i - 1];
+                i--;
+            }
+            surf[i] = w;
+            surfRadius[i] = radius;
+            surfArrival[i] = arrival;
+        }
+        for (int i = 0; i < surfCount; i++) {
+            surfWeight[i] = waveDamage[surf[i]] / (1 + surfArrival[i] / URGENCY_TICKS);
+        }
+    }
+
+    /**
+     * Perigo de estar em (x, y): para cada onda do turno que ainda não
+     * passou do ponto, dano x perto das linhas de mira x urgência. Sem
+     * trigonometria: distância perpendicular às linhas por produto vetorial.
+     */
+    public double danger(double x, double y) {
+        double total = 0;
+        for (int i = 0; i < surfCount; i++) {
+            int w = surf[i];
+            double px = x - waveX[w];
+            double py = y - waveY[w];
+            double passed = surfRadius[i] - BOT_WIDTH / 2;
+            if (passed > 0 && passed * passed > px * px + py * py) continue; // já passou daqui
+            // Kernel por linha: 1 em cima, 1/2 a BOT_WIDTH dela, 0 atrás de quem atirou.
+            // k1 + k2 numa divisão só: (a + b) / ab, com a = 1 + off1², b = 1 + off2².
+            // Linha atrás (0): sai o termo dela, e o fator dela no resto vira 1
+            double a = lineOffset(px, py, headOnSin[w], headOnCos[w]);
+            double b = lineOffset(px, py, linearSin[w], linearCos[w]);
+            double fa = a > 0 ? a : 1;
+            double fb = b > 0 ? b : 1;
+            double num = (a > 0 ? fb : 0) + (b > 0 ? fa : 0);
+            if (num == 0) continue;
+            total += surfWeight[i] * num / (fa * fb);
+        }
+        return total;
+    }
+
+    // 1 + (distância à linha / BOT_WIDTH)², ou 0 se o ponto está atrás de quem atirou
+    private static double lineOffset(double px, double py, double sin, double cos) {
+        if (px * sin + py * cos <= 0) return 0;
+        double off = (px * cos - py * sin) * (1 / BOT_WIDTH);
+        return 1 + off * off;
+    }
+
+    private double distance(int w, double x, double y) {
+        double dx = x - waveX[w];
+        double dy = y - waveY[w];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static boolean nearWall(double x, double y, double width, double height) {
+        return x < WALL_CONTACT || y < WALL_CONTACT || x > width - WALL_CONTACT || y > height - WALL_CONTACT;
+    }
+
+    private int oldestWave() {
+        int oldest = 0;
+        for (int w = 1; w < waveCount; w++) {
+            if (waveTime[w] < waveTime[oldest]) oldest = w;
+        }
+        return oldest;
+    }
+
+    private void removeWave(int w) {
+        int last = --waveCount;
+        waveOwner[w] = waveOwner[last];
+        waveTime[w] = waveTime[last];
+        waveX[w] = waveX[last];
+        waveY[w] = waveY[last];
+        waveSpeed[w] = waveSpeed[last];
+        waveDamage[w] = waveDamage[last];
+        headOnSin[w] = headOnSin[last];
+        headOnCos[w] = headOnCos[last];
+        linearSin[w] = linearSin[last];
+        linearCos[w] = linearCos[last];
+        surfCount = 0; // índices mudaram; o próximo update refaz
+    }
+}
\ No newline at end of file
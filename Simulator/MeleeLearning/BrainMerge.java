@@ -0,0 +1,207 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BrainMerge - Junta cérebros treinados em máquinas diferentes num só.
+ *
+ * Cada Q(s, a) do resultado é a média dos Q(s, a) de entrada ponderada
+ * pelas visitas de cada arquivo: quem treinou mais aquele estado manda
+ * mais. Onde ninguém contou visitas (arquivo da versão 1, ou uma célula
+ * que só andou por rastro de Q(λ)) vale a média simples. As visitas do
+ * resultado são a soma, então o passo 1/n do QBrain continua pequeno onde
+ * o conjunto já aprendeu bastante.
+ *
+ * As entradas são lidas uma de cada vez e em blocos de CHUNK_ROWS linhas;
+ * na memória ficam só os acumuladores do tamanho de um cérebro, por mais
+ * arquivos que entrem. O diário (".journal") de cada entrada é aplicado
+ * por cima do snapshot, sem alterar o arquivo. Entram cérebros densos
+ * (QBrain, TileBrain) e esparsos (BoundedQBrain); a saída é sempre densa,
+ * versão atual, e o diário velho ao lado dela é apagado.
+ *
+ *   java -cp out MeleeLearning.BrainMerge MeleeLearning/MasterBot.data/brain.dat \
+ *        maquina1/brain.dat maquina2/brain.dat maquina3/brain.dat
+ *
+ * Argumentos: arquivo de saída, depois os cérebros de entrada. Entradas com
+ * outro espaço de estados ou outro número de ações que a primeira são
+ * ignoradas com aviso.
+ */
+public final class BrainMerge {
+
+    private static final int CHUNK_ROWS = 4096;
+
+    private int schemaId;
+    private int numActions;
+    private int numStates = 0;
+    private int inputs = 0;
+
+    // Acumuladores por (estado, ação)
+    private double[] weightedQ = new double[0]; // soma de Q * visitas
+    private long[] weight = new long[0];        // soma das visitas
+    private double[] plainQ = new double[0];    // soma de Q
+    private int[] seen = new int[0];            // quantas entradas tinham a célula
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: BrainMerge <saida> <cerebro1> [cerebro2 ...]");
+            return;
+        }
+        BrainMerge merge = new BrainMerge();
+        for (int i = 1; i < args.length; i++) {
+            merge.add(new File(args[i]));
+        }
+        if (merge.inputs == 0) {
+            System.out.println("Nenhum cérebro válido para juntar.");
+            return;
+        }
+        merge.write(new File(args[0]));
+    }
+
+    /** Soma um cérebro aos acumuladores. Retorna false se ele foi ignorado. */
+    public boolean add(File file) throws IOException {
+        if (!file.exists() || file.length() == 0 || BrainFile.isLegacy(file)) {
+            System.out.println("AVISO: " + file + " não existe ou está no formato antigo, ignorado.");
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            BrainFile.Header h = BrainFile.readHeader(ch);
+            if (inputs == 0) {
+                schemaId = h.schemaId;
+                numActions = h.numActions;
+            } else if (h.schemaId != schemaId || h.numActions != numActions) {
+                System.out.println("AVISO: " + file + " tem outro espaço de estados, ignorado.");
+                return false;
+            }
+            String from;
+            if (h.keyFormat == BrainFile.KEY_SPARSE_Q16) {
+                addSparse(ch, h);
+                from = "esparso";
+            } else {
+                int records = addDense(ch, h, BrainJournal.fileFor(file));
+                from = records > 0 ? records + " registros do diário" : "sem diário";
+            }
+            inputs++;
+            System.out.println("+ " + file + ": " + h.numStates + " linhas, versão " + h.version + ", " + from);
+            return true;
+        }
+    }
+
+    private int addDense(FileChannel ch, BrainFile.Header h, File journal) throws IOException {
+        ensureStates(h.numStates);
+        int actions = numActions;
+
+        // O diário é pequeno (vira snapshot quando cresce): fica em memória e
+        // suas linhas substituem as do snapshot
+        Map<Integer, double[]> journalQ = new HashMap<>();
+        Map<Integer, int[]> journalVisits = new HashMap<>();
+        int records = BrainJournal.read(journal, h.schemaId, h.numStates, actions, h.hasVisits(),
+                (state, q, v) -> {
+                    journalQ.put(state, q.clone());
+                    if (v != null) journalVisits.put(state, v.clone());
+                });
+
+        ByteBuffer qBuf = ByteBuffer.allocate(CHUNK_ROWS * actions * 8).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer vBuf = h.hasVisits()
+                ? ByteBuffer.allocate(CHUNK_ROWS * actions * 4).order(ByteOrder.LITTLE_ENDIAN)
+                : null;
+        long qStart = BrainFile.HEADER_BYTES;
+        long vStart = qStart + (long) h.numStates * actions * 8;
+        for (int first = 0; first < h.numStates; first += CHUNK_ROWS) {
+            int rows = Math.min(CHUNK_ROWS, h.numStates - first);
+            readFully(ch, qBuf, qStart + (long) first * actions * 8, rows * actions * 8);
+            if (vBuf != null) readFully(ch, vBuf, vStart + (long) first * actions * 4, rows * actions * 4);
+            for (int r = 0; r < rows; r++) {
+                int state = first + r;
+                double[] jq = journalQ.isEmpty() ? null : journalQ.get(state);
+                int[] jv = jq == null ? null : journalVisits.get(state);
+                for (int a = 0; a < actions; a++) {
+                    int i = r * actions + a;
+                    double q = jq != null ? jq[a] : qBuf.getDouble(i * 8);
+                    int n = jv != null ? jv[a] : (vBuf != null ? vBuf.getInt(i * 4) : 0);
+                    accumulate(state * actions + a, q, n);
+                }
+            }
+        }
+        return records;
+    }
+
+    private void addSparse(FileChannel ch, BrainFile.Header h) throws IOException {
+        int actions = numActions;
+        int rowBytes = BrainFile.sparseRowBytes(actions);
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK_ROWS * rowBytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (int first = 0; first < h.numStates; first += CHUNK_ROWS) {
+            int rows = Math.min(CHUNK_ROWS, h.numStates - first);
+            readFully(ch, buf, BrainFile.HEADER_BYTES + (long) first * rowBytes, rows * rowBytes);
+            for (int r = 0; r < rows; r++) {
+                int row = r * rowBytes;
+                int state = buf.getInt(row);
+                if (state < 0) continue;
+                double scale = buf.getFloat(row + 4) / BoundedQBrain.QMAX;
+                ensureStates(state + 1);
+                for (int a = 0; a < actions; a++) {
+                    double q = buf.getShort(row + 8 + a * 2) * scale;
+                    int n = buf.getChar(row + 8 + (actions + a) * 2);
+                    accumulate(state * actions + a, q, n);
+                }
+            }
+        }
+    }
+
+    private void accumulate(int cell, double q, int visits) {
+        plainQ[cell] += q;
+        seen[cell]++;
+        if (visits > 0) {
+            weightedQ[cell] += q * visits;
+            weight[cell] += visits;
+        }
+    }
+
+    private void ensureStates(int states) {
+        if (states <= numStates) return;
+        int cells = states * numActions;
+        weightedQ = Arrays.copyOf(weightedQ, cells);
+        weight = Arrays.copyOf(weight, cells);
+        plainQ = Arrays.copyOf(plainQ, cells);
+        seen = Arrays.copyOf(seen, cells);
+        numStates = states;
+    }
+
+    /** Grava o resultado (denso, versão atual) e apaga o diário que houver ao lado. */
+    public void write(File out) throws IOException {
+        int cells = numStates * numActions;
+        int[] visits = new int[cells];
+        int known = 0;
+        // weightedQ vira a tabela final, sem alocar outra
+        for (int i = 0; i < cells; i++) {
+            if (weight[i] > 0) {
+                weightedQ[i] /= weight[i];
+            } else {
+                weightedQ[i] = seen[i] > 0 ? plainQ[i] / seen[i] : 0.0;
+            }
+            visits[i] = (int) Math.min(weight[i], Integer.MAX_VALUE);
+            if (weightedQ[i] != 0.0) known++;
+        }
+        BrainFile.write(out, schemaId, numStates, numActions, weightedQ, visits);
+        BrainJournal.fileFor(out).delete();
+        System.out.println("Cérebro salvo: " + out.getAbsolutePath() + " (" + inputs + " entradas, "
+                + numStates + " estados, " + known + " células com valor)");
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position, int bytes) throws IOException {
+        buf.clear().limit(bytes);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Arquivo de cérebro truncado");
+            }
+        }
+        buf.flip();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ConcurrentQBrain - QBrain que aguenta várias threads aprendendo juntas.
+ *
+ * Usa a mesma tabela plana do QBrain, mas toda soma num Q(s,a) é um
+ * compare-and-set no próprio double da tabela (VarHandle): se outra thread
+ * mexeu no meio, refaz sobre o valor novo, e nenhuma atualização se perde.
+ * O passo de Bellman (moveQ) é recalculado a partir do valor que o CAS leu,
+ * não somado como delta fixo: duas threads no mesmo (s, a) chegam juntas no
+ * alvo em vez de passar dele. Leituras são "opaque", então nenhuma thread vê um double pela
+ * metade; as visitas são somadas com getAndAdd. Não há lock, e threads em
+ * estados diferentes nunca disputam nada. O learn/replay do QBrain passa
+ * todo por q()/addQ()/moveQ()/countVisit(), que são os pontos trocados aqui.
+ *
+ * Só existe no treino (pasta Simulator). Os robôs continuam chamando
+ * load/save no fim de cada round; aqui isso não faz nada, quem carrega e
+ * grava é o ParallelTrainer com loadShared/saveShared.
+ */
+public class ConcurrentQBrain extends QBrain {
+
+    private static final VarHandle Q = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle VISITS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    public ConcurrentQBrain(StateSpace space, int numActions) {
+        super(space, numActions);
+    }
+
+    @Override
+    public int getBestAction(int state) {
+        int base = state * numActions;
+        int best = 0;
+        double bestVal = (double) Q.getOpaque(qTable, base);
+        for (int i = 1; i < numActions; i++) {
+            double v = (double) Q.getOpaque(qTable, base + i);
+            if (v > bestVal) {
+                bestVal = v;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int getAction(int state, boolean training) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (training && random.nextDouble() < epsilon(state)) {
+            return leastTried(state, random);
+        }
+        return getBestAction(state);
+    }
+
+    @Override
+    double q(int idx) {
+        return (double) Q.getOpaque(qTable, idx);
+    }
+
+    @Override
+    void addQ(int idx, double amount) {
+        double current;
+        do {
+            current = (double) Q.getVolatile(qTable, idx);
+        } while (!Q.compareAndSet(qTable, idx, current, current + amount));
+    }
+
+    /** O passo é refeito sobre o valor lido a cada tentativa: nunca passa do alvo. */
+    @Override
+    double moveQ(int idx, double target, double step) {
+        double current;
+        do {
+            current = (double) Q.getVolatile(qTable, idx);
+        } while (!Q.compareAndSet(qTable, idx, current, current + step * (target - current)));
+        return current;
+    }
+
+    @Override
+    void countVisit(int idx) {
+        VISITS.getAndAdd(visits, idx, 1);
+    }
+
+    /** Sem save incremental aqui, e o controle de linhas sujas não é thread-safe. */
+    @Override
+    void markDirty(int state) {
+    }
+
+    /** Ignorado: o treino paralelo carrega uma vez só, antes de soltar as threads. */
+    @Override
+    public void load(File file) {
+    }
+
+    /** Ignorado: as threads não gravam; o ParallelTrainer grava no fim. */
+    @Override
+    public void save(File file) {
+    }
+
+    /** Ignorado pelo mesmo motivo: o saveShared já grava sem diário. */
+    @Override
+    public void compact(File file) {
+    }
+
+    public void loadShared(File file) {
+        super.load(file);
+    }
+
+    /** Métricas são por robô e este cérebro é de todas as threads: não conta nada. */
+    @Override
+    public void setMetrics(LearningMetrics metrics) {
+    }
+
+    /** Snapshot completo; chamar só com as threads de treino paradas. */
+    public void saveShared(File file) throws IOException {
+        BrainFile.write(file, space.schemaId(), numStates, numActions, qTable, visits);
+        BrainJournal.fileFor(file).delete();
+        System.out.println("Cérebro salvo: " + file.getAbsolutePath() + " (Estados: " + countKnownStates() + ")");
+    }
+}
\ No newline at end of file
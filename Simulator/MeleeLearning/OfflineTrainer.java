@@ -0,0 +1,295 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * OfflineTrainer - Q-iteration em lote sobre logs de batalha gravados.
+ *
+ * Lê os logs do BattleRecorder (de qualquer número de máquinas e batalhas),
+ * junta todas as transições e resolve o MDP empírico delas: a cada passada,
+ *
+ *   Q(s, a) = média, nas transições (s, a, r, s'), de r + GAMMA * max Q(s', .)
+ *
+ * com o max do Q da passada anterior (zero quando s' é TERMINAL), até a
+ * maior mudança ficar abaixo de TOLERANCE. Cada transição entra em todas as
+ * passadas, em vez de uma vez só como no treino ao vivo.
+ *
+ * Tudo em fork/join: os logs são mapeados em memória e copiados em blocos
+ * paralelos para arrays primitivos, que o Arrays.parallelSort ordena por
+ * (estado, ação); cada passada divide os estados em faixas, e cada faixa
+ * escreve só as suas linhas de Q (nada de trava). Memória: uns 24 bytes por
+ * transição, mais a tabela.
+ *
+ * O resultado é um cérebro denso, versão atual, com as visitas = nº de
+ * transições de cada (s, a), então o passo 1/n do QBrain continua pequeno
+ * onde os logs já cobriram bem; o diário velho ao lado da saída é apagado.
+ * Para juntar com um cérebro treinado ao vivo, use o BrainMerge depois.
+ *
+ *   java -cp out MeleeLearning.OfflineTrainer MeleeLearning/MasterBot.data/brain.dat \
+ *        maquina1/battles.qlog maquina2/battles.qlog
+ *
+ * Argumentos: arquivo de saída, depois os logs. Logs com outro espaço de
+ * estados ou outro número de ações que o primeiro são ignorados com aviso;
+ * registros com estado ou ação fora da faixa são descartados.
+ */
+public final class OfflineTrainer {
+
+    private static final int MAX_ITERATIONS = 500;
+    private static final double TOLERANCE = 1e-6;
+    private static final int LOAD_CHUNK = 1 << 16;  // registros por tarefa de leitura
+    private static final int SWEEP_STATES = 256;    // estados por tarefa da passada
+    private static final int INVALID = Integer.MAX_VALUE; // célula de registro descartado
+
+    private final ForkJoinPool pool = new ForkJoinPool();
+
+    private int schemaId;
+    private int numStates;
+    private int numActions;
+    private final List<MappedByteBuffer> logs = new ArrayList<>();
+    private final List<Long> counts = new ArrayList<>();
+    private long total = 0;
+
+    // Transições ordenadas por célula (estado * numActions + ação)
+    private int[] next;
+    private float[] reward;
+    private int[] cellStart; // transições da célula c: [cellStart[c], cellStart[c + 1])
+
+    private double[] q;
+    private double[] value;     // max Q(s, .) da passada anterior
+    private double[] nextValue;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: OfflineTrainer <saida> <log1> [log2 ...]");
+            return;
+        }
+        OfflineTrainer trainer = new OfflineTrainer();
+        for (int i = 1; i < args.length; i++) {
+            trainer.add(new File(args[i]));
+        }
+        if (trainer.total == 0) {
+            System.out.println("Nenhuma transição válida para treinar.");
+            return;
+        }
+        long start = System.nanoTime();
+        trainer.load();
+        long loaded = System.nanoTime();
+        int iterations = trainer.iterate();
+        long done = System.nanoTime();
+        System.out.printf("%d transições: leitura %d ms, %d passadas em %d ms (%d threads)%n",
+                trainer.total, (loaded - start) / 1000000, iterations, (done - loaded) / 1000000,
+                trainer.pool.getParallelism());
+        trainer.write(new File(args[0]));
+    }
+
+    /** Mapeia um log. Retorna false se ele foi ignorado. */
+    public boolean add(File file) throws IOException {
+        if (!file.exists() || file.length() < BattleRecorder.HEADER_BYTES) {
+            System.out.println("AVISO: " + file + " não existe ou está vazio, ignorado.");
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) {
+                System.out.println("AVISO: " + file + " passa de 2 GB, ignorado.");
+                return false;
+            }
+            // O mapa continua valendo depois que o canal fecha
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.getInt(0) != BattleRecorder.MAGIC || map.getInt(4) != BattleRecorder.VERSION) {
+                System.out.println("AVISO: " + file + " não é um log de batalha, ignorado.");
+                return false;
+            }
+            int schema = map.getInt(8), states = map.getInt(12), actions = map.getInt(16);
+            if (logs.isEmpty()) {
+                schemaId = schema;
+                numStates = states;
+                numActions = actions;
+            } else if (schema != schemaId || states != numStates || actions != numActions) {
+                System.out.println("AVISO: " + file + " tem outro espaço de estados, ignorado.");
+                return false;
+            }
+            long stored = (ch.size() - BattleRecorder.HEADER_BYTES) / BattleRecorder.RECORD_BYTES;
+            long count = Math.min(map.getLong(BattleRecorder.COUNT_OFFSET), stored);
+            if (total + count > Integer.MAX_VALUE - 8) {
+                System.out.println("AVISO: transições demais, " + file + " ignorado.");
+                return false;
+            }
+            logs.add(map);
+            counts.add(count);
+            total += count;
+            System.out.println("+ " + file + ": " + count + " transições");
+            return true;
+        }
+    }
+
+    /** Copia os logs em paralelo e ordena as transições por célula. */
+    private void load() {
+        int n = (int) total;
+        long[] keys = new long[n];
+        int[] rawNext = new int[n];
+        float[] rawReward = new float[n];
+        List<Load> tasks = new ArrayList<>();
+        int dest = 0;
+        for (int f = 0; f < logs.size(); f++) {
+            int count = (int) (long) counts.get(f);
+            tasks.add(new Load(logs.get(f), 0, count, dest, keys, rawNext, rawReward));
+            dest += count;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        // Chave = célula nos 32 bits de cima, índice original nos de baixo
+        Arrays.parallelSort(keys);
+        next = new int[n];
+        reward = new float[n];
+        int cells = numStates * numActions;
+        cellStart = new int[cells + 1];
+        int valid = 0;
+        for (int i = 0; i < n; i++) {
+            int cell = (int) (keys[i] >>> 32);
+            if (cell == INVALID) break;
+            int from = (int) keys[i];
+            next[i] = rawNext[from];
+            reward[i] = rawReward[from];
+            cellStart[cell + 1]++;
+            valid++;
+        }
+        for (int c = 0; c < cells; c++) cellStart[c + 1] += cellStart[c];
+        if (valid < n) System.out.println("AVISO: " + (n - valid) + " registros fora da faixa descartados.");
+    }
+
+    /** Passadas até convergir; devolve quantas foram. */
+    private int iterate() {
+        q = new double[numStates * numActions];
+        value = new double[numStates];
+        nextValue = new double[numStates];
+        for (int it = 1; it <= MAX_ITERATIONS; it++) {
+            double delta = pool.invoke(new Sweep(0, numStates));
+            double[] t = value;
+            value = nextValue;
+            nextValue = t;
+            if (delta < TOLERANCE) return it;
+        }
+        System.out.println("AVISO: não convergiu em " + MAX_ITERATIONS + " passadas.");
+        return MAX_ITERATIONS;
+    }
+
+    /** Grava o cérebro (denso, versão atual) e apaga o diário que houver ao lado. */
+    public void write(File out) throws IOException {
+        int cells = numStates * numActions;
+        int[] visits = new int[cells];
+        int known = 0;
+        for (int c = 0; c < cells; c++) {
+            visits[c] = cellStart[c + 1] - cellStart[c];
+            if (visits[c] > 0) known++;
+        }
+        BrainFile.write(out, schemaId, numStates, numActions, q, visits);
+        BrainJournal.fileFor(out).delete();
+        System.out.println("Cérebro salvo: " + out.getAbsolutePath() + " (" + numStates + " estados, "
+                + known + " células com transições)");
+    }
+
+    /** Copia registros [from, to) de um log para as posições dest... dos arrays. */
+    private final class Load extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer map;
+        private final int from, to, dest;
+        private final long[] keys;
+        private final int[] rawNext;
+        private final float[] rawReward;
+
+        Load(MappedByteBuffer map, int from, int to, int dest, long[] keys, int[] rawNext, float[] rawReward) {
+            this.map = map;
+            this.from = from;
+            this.to = to;
+            this.dest = dest;
+            this.keys = keys;
+            this.rawNext = rawNext;
+            this.rawReward = rawReward;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LOAD_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Load(map, from, mid, dest, keys, rawNext, rawReward),
+                        new Load(map, mid, to, dest + (mid - from), keys, rawNext, rawReward));
+                return;
+            }
+            // Só leituras absolutas: o mesmo mapa serve a todas as tarefas
+            for (int i = from; i < to; i++) {
+                int at = BattleRecorder.HEADER_BYTES + i * BattleRecorder.RECORD_BYTES;
+                int state = map.getInt(at);
+                int action = map.getInt(at + 4);
+                int nextState = map.getInt(at + 12);
+                boolean ok = state >= 0 && state < numStates && action >= 0 && action < numActions
+                        && nextState >= QBrain.TERMINAL && nextState < numStates;
+                int d = dest + i - from;
+                keys[d] = ((long) (ok ? state * numActions + action : INVALID) << 32) | d;
+                rawNext[d] = nextState;
+                rawReward[d] = map.getFloat(at + 8);
+            }
+        }
+    }
+
+    /** Uma passada sobre os estados [from, to); devolve a maior mudança de Q. */
+    private final class Sweep extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        Sweep(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > SWEEP_STATES) {
+                int mid = (from + to) >>> 1;
+                Sweep left = new Sweep(from, mid);
+                left.fork();
+                double right = new Sweep(mid, to).compute();
+                return Math.max(left.join(), right);
+            }
+            double delta = 0;
+            for (int s = from; s < to; s++) {
+                double best = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions; a++) {
+                    int c = s * numActions + a;
+                    int end = cellStart[c + 1];
+                    if (end > cellStart[c]) {
+                        double sum = 0;
+                        for (int i = cellStart[c]; i < end; i++) {
+                            int ns = next[i];
+                            sum += reward[i] + (ns == QBrain.TERMINAL ? 0 : QBrain.GAMMA * value[ns]);
+                        }
+                        double updated = sum / (end - cellStart[c]);
+                        delta = Math.max(delta, Math.abs(updated - q[c]));
+                        q[c] = updated;
+                    }
+                    best = Math.max(best, q[c]);
+                }
+                nextValue[s] = best;
+            }
+            return delta;
+        }
+    }
+}
\ No newline at end of file
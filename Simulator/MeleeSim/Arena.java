@@ -0,0 +1,442 @@
+package MeleeSim;
+
+import robocode.*;
+import robocode.util.Utils;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Arena - Campo de batalha headless com as regras do Robocode.
+ *
+ * Reproduz o que importa para o treino: aceleração/frenagem e taxa de giro,
+ * calor e resfriamento do canhão, balas (velocidade, dano, bônus de energia),
+ * colisão com parede e com robôs, varredura do radar (1200px) e a regra de
+ * inatividade. Tudo roda na thread de quem chama: o robô treinado avança o
+ * mundo a cada execute(), sem threads nem sleeps, então um tick custa só as
+ * contas da física.
+ *
+ * Balas ficam em arrays paralelos reaproveitados (nada de objeto por bala).
+ */
+public class Arena {
+
+    static final double GUN_COOLING_RATE = 0.1;
+    static final long DATA_QUOTA = 200000;
+    static final int INACTIVITY_TIME = 450;
+    static final double INACTIVITY_DAMAGE = 0.1;
+    static final int MAX_BULLETS = 512;
+
+    final double width;
+    final double height;
+    final File dataDir;
+    final Random random;
+
+    private final SimRobot[] robots;
+    private int robotCount = 0;
+    private SimRobot learner;
+
+    long time;
+    int round;
+    int numRounds = 1;
+    int maxTicksPerRound = 6000;
+    private long lastDamageTime;
+
+    // Balas em voo (structure of arrays)
+    private final double[] bx = new double[MAX_BULLETS];
+    private final double[] by = new double[MAX_BULLETS];
+    private final double[] bHeading = new double[MAX_BULLETS];
+    private final double[] bvx = new double[MAX_BULLETS];
+    private final double[] bvy = new double[MAX_BULLETS];
+    private final double[] bPower = new double[MAX_BULLETS];
+    private final int[] bOwner = new int[MAX_BULLETS];
+    private int bulletCount = 0;
+
+    public Arena(double width, double height, int maxRobots, File dataDir, long seed) {
+        this.width = width;
+        this.height = height;
+        this.robots = new SimRobot[maxRobots];
+        this.dataDir = dataDir;
+        this.random = new Random(seed);
+    }
+
+    public SimRobot addLearner(String name) {
+        if (learner != null) throw new IllegalStateException("Só um robô treinado por arena");
+        learner = add(name, null);
+        return learner;
+    }
+
+    public SimRobot addScripted(String name, Script script) {
+        return add(name, script);
+    }
+
+    private SimRobot add(String name, Script script) {
+        SimRobot r = new SimRobot(this, name, robotCount, script);
+        robots[robotCount++] = r;
+        return r;
+    }
+
+    public void setNumRounds(int numRounds) {
+        this.numRounds = numRounds;
+    }
+
+    public void setMaxTicksPerRound(int maxTicksPerRound) {
+        this.maxTicksPerRound = maxTicksPerRound;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public SimRobot getLearner() {
+        return learner;
+    }
+
+    /** Posiciona todo mundo em lugares aleatórios sem sobreposição. */
+    public void startRound(int round, AdvancedRobot bot) {
+        this.round = round;
+        this.time = 0;
+        this.lastDamageTime = 0;
+        this.bulletCount = 0;
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot r = robots[i];
+            double px, py;
+            boolean clear;
+            do {
+                px = SimRobot.HALF_SIZE + random.nextDouble() * (width - 2 * SimRobot.HALF_SIZE);
+                py = SimRobot.HALF_SIZE + random.nextDouble() * (height - 2 * SimRobot.HALF_SIZE);
+                clear = true;
+                for (int j = 0; j < i; j++) {
+                    if (overlaps(px, py, robots[j].x, robots[j].y)) {
+                        clear = false;
+                        break;
+                    }
+                }
+            } while (!clear);
+            r.reset(px, py, random.nextDouble() * 2 * Math.PI);
+            if (r.script != null) r.script.onRoundStart(r, this);
+        }
+        if (learner != null) {
+            learner.robot = bot;
+            bot.setPeer(learner);
+        }
+    }
+
+    public int aliveCount() {
+        int n = 0;
+        for (int i = 0; i < robotCount; i++) {
+            if (robots[i].alive) n++;
+        }
+        return n;
+    }
+
+    /** Acaba quando o robô treinado morre, sobra um só ou estoura o tempo. */
+    public boolean isRoundOver() {
+        return (learner != null && !learner.alive) || aliveCount() <= 1 || time >= maxTicksPerRound;
+    }
+
+    void finishRound(SimRobot r) {
+        if (r.alive && aliveCount() == 1) {
+            r.addEvent(new WinEvent());
+        } else if (!r.alive) {
+            r.addEvent(new DeathEvent());
+        }
+        r.addEvent(new RoundEndedEvent(round, (int) time, (int) time));
+    }
+
+    // ===== Consultas para os roteirizados =====
+
+    public int robotCount() {
+        return robotCount;
+    }
+
+    public SimRobot robot(int i) {
+        return robots[i];
+    }
+
+    public SimRobot nearestEnemy(SimRobot me) {
+        SimRobot best = null;
+        double bestD = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot o = robots[i];
+            if (o == me || !o.alive) continue;
+            double dx = o.x - me.x, dy = o.y - me.y;
+            double d = dx * dx + dy * dy;
+            if (d < bestD) {
+                bestD = d;
+                best = o;
+            }
+        }
+        return best;
+    }
+
+    // ===== Um tick =====
+
+    public void step() {
+        time++;
+
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot r = robots[i];
+            if (r.alive && r.script != null) r.script.tick(r, this);
+        }
+
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot r = robots[i];
+            if (!r.alive) continue;
+            updateGun(r);
+            updateTurns(r);
+            updateMovement(r);
+        }
+
+        updateBullets();
+
+        // Roteirizados enxergam a arena toda; só o robô treinado precisa de radar
+        if (learner != null && learner.alive) scan(learner);
+
+        if (time - lastDamageTime > INACTIVITY_TIME) {
+            for (int i = 0; i < robotCount; i++) {
+                if (robots[i].alive) damage(robots[i], INACTIVITY_DAMAGE);
+            }
+        }
+        checkDeaths();
+    }
+
+    private void updateGun(SimRobot r) {
+        // Só atira com energia sobrando: aqui energia zerada sempre é morte
+        if (r.firePower > 0 && r.gunHeat == 0 && r.energy > r.firePower && bulletCount < MAX_BULLETS) {
+            double power = r.firePower;
+            r.energy -= power;
+            r.gunHeat = Rules.getGunHeat(power);
+            int b = bulletCount++;
+            bx[b] = r.x;
+            by[b] = r.y;
+            bHeading[b] = r.gunHeading;
+            bvx[b] = Math.sin(r.gunHeading) * Rules.getBulletSpeed(power);
+            bvy[b] = Math.cos(r.gunHeading) * Rules.getBulletSpeed(power);
+            bPower[b] = power;
+            bOwner[b] = r.index;
+        }
+        r.firePower = 0; // setFire só vale para este turno
+        r.gunHeat = Math.max(0, r.gunHeat - GUN_COOLING_RATE);
+    }
+
+    private void updateTurns(SimRobot r) {
+        double bodyTurn = clampTurn(r.bodyTurnRemaining, Rules.getTurnRateRadians(r.velocity));
+        r.bodyTurnRemaining -= bodyTurn;
+        r.heading = Utils.normalAbsoluteAngle(r.heading + bodyTurn);
+
+        double gunTurn = clampTurn(r.gunTurnRemaining, Rules.GUN_TURN_RATE_RADIANS);
+        r.gunTurnRemaining -= gunTurn;
+        if (!r.adjustGunForBody) gunTurn += bodyTurn;
+        r.gunHeading = Utils.normalAbsoluteAngle(r.gunHeading + gunTurn);
+
+        double radarTurn = clampTurn(r.radarTurnRemaining, Rules.RADAR_TURN_RATE_RADIANS);
+        r.radarTurnRemaining -= radarTurn;
+        if (!r.adjustRadarForGun) radarTurn += gunTurn;       // gunTurn já inclui o corpo se preciso
+        else if (!r.adjustRadarForBody) radarTurn += bodyTurn;
+        r.lastRadarHeading = r.radarHeading;
+        r.radarHeading = Utils.normalAbsoluteAngle(r.radarHeading + radarTurn);
+    }
+
+    private static double clampTurn(double remaining, double rate) {
+        if (remaining > 0) return Math.min(remaining, rate);
+        if (remaining < 0) return Math.max(remaining, -rate);
+        return 0;
+    }
+
+    private void updateMovement(SimRobot r) {
+        r.velocity = newVelocity(r.velocity, r.distanceRemaining, r.maxVelocity);
+        if (r.velocity == 0) return;
+
+        double oldX = r.x, oldY = r.y;
+        r.distanceRemaining -= r.velocity;
+        r.x += Math.sin(r.heading) * r.velocity;
+        r.y += Math.cos(r.heading) * r.velocity;
+
+        // Parede
+        double minX = SimRobot.HALF_SIZE, maxX = width - SimRobot.HALF_SIZE;
+        double minY = SimRobot.HALF_SIZE, maxY = height - SimRobot.HALF_SIZE;
+        double wallAngle = Double.NaN;
+        if (r.x < minX) { r.x = minX; wallAngle = 1.5 * Math.PI; }
+        else if (r.x > maxX) { r.x = maxX; wallAngle = 0.5 * Math.PI; }
+        if (r.y < minY) { r.y = minY; wallAngle = Math.PI; }
+        else if (r.y > maxY) { r.y = maxY; wallAngle = 0; }
+        if (!Double.isNaN(wallAngle)) {
+            damage(r, Rules.getWallHitDamage(r.velocity));
+            r.velocity = 0;
+            r.distanceRemaining = 0;
+            r.addEvent(new HitWallEvent(Utils.normalRelativeAngle(wallAngle - r.heading)));
+        }
+
+        // Outros robôs: quem se moveu para dentro do outro volta e leva a culpa
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot o = robots[i];
+            if (o == r || !o.alive || !overlaps(r.x, r.y, o.x, o.y)) continue;
+            r.x = oldX;
+            r.y = oldY;
+            r.velocity = 0;
+            r.distanceRemaining = 0;
+            damage(r, Rules.ROBOT_HIT_DAMAGE);
+            damage(o, Rules.ROBOT_HIT_DAMAGE);
+            double toOther = Math.atan2(o.x - r.x, o.y - r.y);
+            r.addEvent(new HitRobotEvent(o.name, Utils.normalRelativeAngle(toOther - r.heading), o.energy, true));
+            o.addEvent(new HitRobotEvent(r.name, Utils.normalRelativeAngle(toOther + Math.PI - o.heading),
+                    r.energy, false));
+            break;
+        }
+    }
+
+    /** Mesma regra de velocidade do Robocode (acelera 1, freia 2, para na distância pedida). */
+    static double newVelocity(double velocity, double distance, double maxVelocity) {
+        if (distance < 0) {
+            return -newVelocity(-velocity, -distance, maxVelocity);
+        }
+        double goal = Math.min(maxVelocityFor(distance), maxVelocity);
+        if (velocity >= 0) {
+            return Math.max(velocity - Rules.DECELERATION, Math.min(goal, velocity + Rules.ACCELERATION));
+        }
+        return Math.max(velocity - Rules.ACCELERATION, Math.min(goal, velocity + maxDecel(-velocity)));
+    }
+
+    private static double maxVelocityFor(double distance) {
+        if (distance == Double.POSITIVE_INFINITY) return Rules.MAX_VELOCITY;
+        double decelTime = Math.max(1, Math.ceil((Math.sqrt((4 * 2 / Rules.DECELERATION) * distance + 1) - 1) / 2));
+        double decelDist = (decelTime / 2.0) * (decelTime - 1) * Rules.DECELERATION;
+        return ((decelTime - 1) * Rules.DECELERATION) + ((distance - decelDist) / decelTime);
+    }
+
+    private static double maxDecel(double speed) {
+        double decelTime = speed / Rules.DECELERATION;
+        double accelTime = 1 - decelTime;
+        return Math.min(1, decelTime) * Rules.DECELERATION + Math.max(0, accelTime) * Rules.ACCELERATION;
+    }
+
+    private void updateBullets() {
+        int i = 0;
+        while (i < bulletCount) {
+            double x0 = bx[i], y0 = by[i];
+            double x1 = x0 + bvx[i];
+            double y1 = y0 + bvy[i];
+            SimRobot owner = robots[bOwner[i]];
+
+            SimRobot victim = null;
+            for (int k = 0; k < robotCount; k++) {
+                SimRobot o = robots[k];
+                if (o == owner || !o.alive) continue;
+                if (segmentHitsBox(x0, y0, x1, y1, o.x, o.y)) {
+                    victim = o;
+                    break;
+                }
+            }
+
+            if (victim != null) {
+                double power = bPower[i];
+                damage(victim, Rules.getBulletDamage(power));
+                lastDamageTime = time;
+                if (owner.alive) owner.energy += Rules.getBulletHitBonus(power);
+                Bullet b = new Bullet(bHeading[i], x1, y1, power, owner.name, victim.name, false);
+                owner.addEvent(new BulletHitEvent(victim.name, victim.energy, b));
+                double back = Utils.normalRelativeAngle(bHeading[i] + Math.PI - victim.heading);
+                victim.addEvent(new HitByBulletEvent(back, b));
+                removeBullet(i);
+            } else if (x1 < 0 || y1 < 0 || x1 > width || y1 > height) {
+                owner.addEvent(new BulletMissedEvent(new Bullet(bHeading[i], x1, y1, bPower[i], owner.name, null, false)));
+                removeBullet(i);
+            } else {
+                bx[i] = x1;
+                by[i] = y1;
+                i++;
+            }
+        }
+    }
+
+    private void removeBullet(int i) {
+        int last = --bulletCount;
+        bx[i] = bx[last];
+        by[i] = by[last];
+        bHeading[i] = bHeading[last];
+        bvx[i] = bvx[last];
+        bvy[i] = bvy[last];
+        bPower[i] = bPower[last];
+        bOwner[i] = bOwner[last];
+    }
+
+    /**
+     * Varredura do radar: tudo dentro de 1200px no arco entre o heading anterior
+     * e o atual. O teste é feito com produto vetorial contra os dois raios do
+     * arco (tolerância de meio robô), então só quem foi visto paga um atan2.
+     */
+    private void scan(SimRobot r) {
+        double sweep = Utils.normalRelativeAngle(r.radarHeading - r.lastRadarHeading);
+        double sx = Math.sin(r.lastRadarHeading), sy = Math.cos(r.lastRadarHeading);
+        double ex = Math.sin(r.radarHeading), ey = Math.cos(r.radarHeading);
+        double range2 = Rules.RADAR_SCAN_RADIUS * Rules.RADAR_SCAN_RADIUS;
+        double tol = SimRobot.HALF_SIZE;
+
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot o = robots[i];
+            if (o == r || !o.alive) continue;
+            double dx = o.x - r.x, dy = o.y - r.y;
+            double dist2 = dx * dx + dy * dy;
+            if (dist2 > range2) continue;
+
+            // Sentido horário (sweep >= 0) deixa o alvo com cruz <= 0 em relação ao raio inicial
+            double cStart = sx * dy - sy * dx;
+            double cEnd = ex * dy - ey * dx;
+            boolean inArc = (sweep >= 0)
+                    ? cStart <= tol && cEnd >= -tol
+                    : cStart >= -tol && cEnd <= tol;
+            boolean inFront = sx * dx + sy * dy > 0 || ex * dx + ey * dy > 0;
+            if (inArc && inFront) {
+                double absBearing = Math.atan2(dx, dy);
+                r.addEvent(new ScannedRobotEvent(o.name, o.energy, Utils.normalRelativeAngle(absBearing - r.heading),
+                        Math.sqrt(dist2), o.heading, o.velocity, false));
+            }
+        }
+    }
+
+    private void damage(SimRobot r, double amount) {
+        r.energy -= amount;
+    }
+
+    private void checkDeaths() {
+        for (int i = 0; i < robotCount; i++) {
+            SimRobot r = robots[i];
+            if (!r.alive || r.energy > 0) continue;
+            r.alive = false;
+            r.energy = 0;
+            r.deathTime = time;
+            for (int k = 0; k < robotCount; k++) {
+                if (robots[k].alive) robots[k].addEvent(new RobotDeathEvent(r.name));
+            }
+        }
+    }
+
+    static boolean overlaps(double x1, double y1, double x2, double y2) {
+        return Math.abs(x1 - x2) < 2 * SimRobot.HALF_SIZE && Math.abs(y1 - y2) < 2 * SimRobot.HALF_SIZE;
+    }
+
+    /** Segmento contra a caixa 36x36 do robô (método dos slabs, sem alocação). */
+    static boolean segmentHitsBox(double x0, double y0, double x1, double y1, double cx, double cy) {
+        double dx = x1 - x0, dy = y1 - y0;
+        double tMin = 0, tMax = 1;
+
+        if (dx == 0) {
+            if (Math.abs(x0 - cx) > SimRobot.HALF_SIZE) return false;
+        } else {
+            double ta = (cx - SimRobot.HALF_SIZE - x0) / dx;
+            double tb = (cx + SimRobot.HALF_SIZE - x0) / dx;
+            tMin = Math.max(tMin, Math.min(ta, tb));
+            tMax = Math.min(tMax, Math.max(ta, tb));
+            if (tMin > tMax) return false;
+        }
+
+        if (dy == 0) {
+            return Math.abs(y0 - cy) <= SimRobot.HALF_SIZE;
+        }
+        double ta = (cy - SimRobot.HALF_SIZE - y0) / dy;
+        double tb = (cy + SimRobot.HALF_SIZE - y0) / dy;
+        tMin = Math.max(tMin, Math.min(ta, tb));
+        tMax = Math.min(tMax, Math.max(ta, tb));
+        return tMin <= tMax;
+    }
+}
\ No newline at end of file
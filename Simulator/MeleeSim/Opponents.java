@@ -0,0 +1,154 @@
+package MeleeSim;
+
+import robocode.Rules;
+import robocode.util.Utils;
+
+/**
+ * Opponents - Oponentes roteirizados para treinar na Arena.
+ *
+ * Imitam os sample bots clássicos do Robocode (SittingDuck, SpinBot, Walls,
+ * Tracker, Crazy) de forma simples e barata. Todos enxergam a arena inteira.
+ */
+public final class Opponents {
+
+    public static final String[] NAMES = {"duck", "spinner", "walls", "tracker", "random"};
+
+    private Opponents() {
+    }
+
+    public static Script byName(String name) {
+        switch (name) {
+            case "duck":
+                return new SittingDuck();
+            case "spinner":
+                return new Spinner();
+            case "walls":
+                return new Walls();
+            case "tracker":
+                return new Tracker();
+            case "random":
+                return new RandomMover();
+            default:
+                throw new IllegalArgumentException("Oponente desconhecido: " + name);
+        }
+    }
+
+    // ===== Auxiliares =====
+
+    /** Mira de frente (linear = false) ou linear no alvo e atira se o canhão estiver alinhado. */
+    static void aimAndFire(SimRobot me, SimRobot target, double power, boolean linear) {
+        if (target == null) return;
+        double tx = target.x, ty = target.y;
+        if (linear) {
+            double speed = Rules.getBulletSpeed(power);
+            for (int i = 0; i < 10; i++) {
+                double t = Math.hypot(tx - me.x, ty - me.y) / speed;
+                tx = target.x + Math.sin(target.heading) * target.velocity * t;
+                ty = target.y + Math.cos(target.heading) * target.velocity * t;
+            }
+        }
+        double angle = Math.atan2(tx - me.x, ty - me.y);
+        double turn = Utils.normalRelativeAngle(angle - me.gunHeading);
+        me.setTurnGun(turn);
+        if (Math.abs(turn) < Rules.GUN_TURN_RATE_RADIANS) me.setFire(power);
+    }
+
+    static void goTo(SimRobot me, double x, double y) {
+        double angle = Math.atan2(x - me.x, y - me.y);
+        double turn = Utils.normalRelativeAngle(angle - me.heading);
+        double dist = Math.hypot(x - me.x, y - me.y);
+        if (Math.abs(turn) > Math.PI / 2) {
+            turn = Utils.normalRelativeAngle(turn + Math.PI);
+            dist = -dist;
+        }
+        me.setTurnBody(turn);
+        me.setMove(dist);
+    }
+
+    // ===== Oponentes =====
+
+    /** Parado, não atira. */
+    static class SittingDuck implements Script {
+        public void tick(SimRobot me, Arena arena) {
+        }
+    }
+
+    /** Gira em círculos e atira de frente no mais próximo. */
+    static class Spinner implements Script {
+        public void tick(SimRobot me, Arena arena) {
+            me.setTurnBody(Math.toRadians(10));
+            me.setMove(100);
+            aimAndFire(me, arena.nearestEnemy(me), 2.0, false);
+        }
+    }
+
+    /** Percorre as paredes de canto em canto (sentido horário), atirando de frente. */
+    static class Walls implements Script {
+        private static final double MARGIN = 30;
+        private int corner;
+
+        public void onRoundStart(SimRobot me, Arena arena) {
+            // Começa pelo canto mais próximo
+            double best = Double.POSITIVE_INFINITY;
+            for (int c = 0; c < 4; c++) {
+                double d = Math.hypot(cornerX(c, arena) - me.x, cornerY(c, arena) - me.y);
+                if (d < best) {
+                    best = d;
+                    corner = c;
+                }
+            }
+        }
+
+        public void tick(SimRobot me, Arena arena) {
+            double tx = cornerX(corner, arena), ty = cornerY(corner, arena);
+            if (Math.hypot(tx - me.x, ty - me.y) < 20) {
+                corner = (corner + 1) % 4;
+                tx = cornerX(corner, arena);
+                ty = cornerY(corner, arena);
+            }
+            goTo(me, tx, ty);
+            aimAndFire(me, arena.nearestEnemy(me), 1.5, false);
+        }
+
+        // 0 = inferior esquerdo, 1 = superior esquerdo, 2 = superior direito, 3 = inferior direito
+        private static double cornerX(int c, Arena arena) {
+            return (c < 2) ? MARGIN : arena.width - MARGIN;
+        }
+
+        private static double cornerY(int c, Arena arena) {
+            return (c == 1 || c == 2) ? arena.height - MARGIN : MARGIN;
+        }
+    }
+
+    /** Vai para cima do mais próximo e atira forte quando perto. */
+    static class Tracker implements Script {
+        public void tick(SimRobot me, Arena arena) {
+            SimRobot t = arena.nearestEnemy(me);
+            if (t == null) return;
+            double dist = Math.hypot(t.x - me.x, t.y - me.y);
+            goTo(me, t.x, t.y);
+            if (dist < 140) me.setMove(0);
+            aimAndFire(me, t, dist < 250 ? 3.0 : 1.0, false);
+        }
+    }
+
+    /** Vai para pontos aleatórios e usa mira linear. */
+    static class RandomMover implements Script {
+        private double tx, ty;
+        private int ticksLeft;
+
+        public void onRoundStart(SimRobot me, Arena arena) {
+            ticksLeft = 0;
+        }
+
+        public void tick(SimRobot me, Arena arena) {
+            if (--ticksLeft <= 0) {
+                tx = 60 + arena.random.nextDouble() * (arena.width - 120);
+                ty = 60 + arena.random.nextDouble() * (arena.height - 120);
+                ticksLeft = 20 + arena.random.nextInt(40);
+            }
+            goTo(me, tx, ty);
+            aimAndFire(me, arena.nearestEnemy(me), 2.0, true);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package MeleeSim;
+
+import MeleeLearning.ConcurrentQBrain;
+import MeleeLearning.QBrain;
+import robocode.AdvancedRobot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelTrainer - Várias arenas ao mesmo tempo, um cérebro só.
+ *
+ * Roda uma Arena por thread (por padrão uma por núcleo). Todas alimentam o
+ * mesmo ConcurrentQBrain, instalado pela fábrica do QBrain antes de
+ * qualquer robô nascer. O brain.dat é carregado uma vez no começo e gravado
+ * uma vez no fim.
+ *
+ * Cada thread carrega a classe do robô no seu próprio ClassLoader, então os
+ * campos static do robô (inclusive o "brain") não vazam entre arenas; o
+ * cérebro só é o mesmo porque a fábrica devolve sempre a mesma instância.
+ *
+ *   java -cp out MeleeSim.ParallelTrainer MeleeLearning.TrainerBot MeleeLearning/TrainerBot.data/brain.dat 2000 7
+ *
+ * Argumentos: classe do robô, arquivo do cérebro, rodadas por thread,
+ * nº de oponentes, nº de threads, semente.
+ */
+public class ParallelTrainer {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: ParallelTrainer <classeDoRobo> <arquivoDoCerebro> [rodadasPorThread] [oponentes] [threads] [semente]");
+            return;
+        }
+        String botClassName = args[0];
+        File brainFile = new File(args[1]);
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int opponents = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        ConcurrentQBrain brain = train(botClassName, brainFile, rounds, opponents, threads, seed);
+        if (brain != null) brain.saveShared(brainFile);
+    }
+
+    public static ConcurrentQBrain train(String botClassName, File brainFile, int rounds, int opponents,
+                                         int threads, long seed) throws Exception {
+        ConcurrentQBrain[] shared = new ConcurrentQBrain[1];
+        QBrain.setFactory((space, numActions) -> {
+            synchronized (shared) {
+                if (shared[0] == null) {
+                    shared[0] = new ConcurrentQBrain(space, numActions);
+                    shared[0].loadShared(brainFile);
+                }
+                return shared[0];
+            }
+        });
+
+        File workRoot = brainFile.getAbsoluteFile().getParentFile();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<TrainingRunner.Result>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            final int worker = w;
+            futures.add(pool.submit(() -> {
+                ClassLoader loader = new BotLoader(botClassName, ParallelTrainer.class.getClassLoader());
+                Class<? extends AdvancedRobot> botClass =
+                        Class.forName(botClassName, true, loader).asSubclass(AdvancedRobot.class);
+                Arena arena = new Arena(800, 600, opponents + 1,
+                        new File(workRoot, "worker-" + worker), seed + worker);
+                arena.setNumRounds(rounds);
+                arena.addLearner(botClass.getSimpleName());
+                for (int i = 0; i < opponents; i++) {
+                    String name = Opponents.NAMES[(i + worker) % Opponents.NAMES.length];
+                    arena.addScripted(name + "#" + i, Opponents.byName(name));
+                }
+                return TrainingRunner.run(arena, botClass, rounds);
+            }));
+        }
+
+        int wins = 0;
+        long ticks = 0;
+        for (Future<TrainingRunner.Result> f : futures) {
+            TrainingRunner.Result r = f.get();
+            wins += r.wins;
+            ticks += r.ticks;
+        }
+        pool.shutdown();
+        QBrain.setFactory(QBrain::new);
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+        int totalRounds = rounds * threads;
+        System.out.printf("%d threads, %d rodadas, %d vitórias (%.1f%%), %d ticks em %d ms (%.0f ticks/ms)%n",
+                threads, totalRounds, wins, 100.0 * wins / totalRounds, ticks, millis, (double) ticks / millis);
+        return shared[0];
+    }
+
+    /**
+     * Carrega de novo só a classe do robô (e as internas dela); o resto,
+     * inclusive QBrain e o stand-in do robocode, vem do ClassLoader pai e é
+     * compartilhado.
+     */
+    static class BotLoader extends ClassLoader {
+        private final String botClassName;
+
+        BotLoader(String botClassName, ClassLoader parent) {
+            super(parent);
+            this.botClassName = botClassName;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(botClassName) && !name.startsWith(botClassName + "$")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    String path = name.replace('.', '/') + ".class";
+                    try (InputStream in = getParent().getResourceAsStream(path)) {
+                        if (in == null) throw new ClassNotFoundException(name);
+                        byte[] bytes = in.readAllBytes();
+                        c = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if (resolve) resolveClass(c);
+                return c;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package MeleeSim;
+
+/**
+ * Lançado de dentro do execute() quando a rodada termina, para sair do
+ * while(true) do run() do robô (o Robocode faz o mesmo matando a thread).
+ * É um Error para não ser engolido por catch (Exception) no código do robô.
+ */
+public class RoundOver extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    public RoundOver() {
+        super(null, null, false, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package MeleeSim;
+
+/**
+ * Script - Oponente roteirizado da Arena.
+ *
+ * Roda dentro do tick da arena (sem thread própria) e comanda o SimRobot
+ * pelos mesmos setters do robô treinado. Pode consultar a arena inteira:
+ * não precisa de radar nem de eventos.
+ */
+public interface Script {
+
+    default void onRoundStart(SimRobot me, Arena arena) {
+    }
+
+    void tick(SimRobot me, Arena arena);
+}
\ No newline at end of file
@@ -0,0 +1,262 @@
+package MeleeSim;
+
+import robocode.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * SimRobot - Corpo de um robô dentro da Arena.
+ *
+ * Guarda posição, ângulos, energia e os comandos pendentes (set*), como o
+ * peer do Robocode. Para o robô treinado ele também é o RobotPeer do
+ * AdvancedRobot de mentira: execute() avança a arena e entrega os eventos.
+ * Robôs roteirizados (Script) usam os mesmos setters direto.
+ */
+public class SimRobot implements RobotPeer {
+
+    static final double HALF_SIZE = 18;
+
+    final Arena arena;
+    final String name;
+    final int index;
+    final Script script;       // null para o robô treinado
+    AdvancedRobot robot;       // só no robô treinado
+
+    // Estado físico
+    double x, y;
+    double heading, gunHeading, radarHeading, lastRadarHeading;
+    double velocity;
+    double energy;
+    double gunHeat;
+    boolean alive;
+    long deathTime;
+
+    // Comandos pendentes
+    double distanceRemaining;
+    double bodyTurnRemaining;
+    double gunTurnRemaining;
+    double radarTurnRemaining;
+    double maxVelocity = Rules.MAX_VELOCITY;
+    double firePower;
+    boolean adjustGunForBody;
+    boolean adjustRadarForGun;
+    boolean adjustRadarForBody;
+
+    // Eventos gerados no tick (só o robô treinado recebe)
+    final ArrayList<Event> events = new ArrayList<>();
+
+    SimRobot(Arena arena, String name, int index, Script script) {
+        this.arena = arena;
+        this.name = name;
+        this.index = index;
+        this.script = script;
+    }
+
+    void reset(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.gunHeading = heading;
+        this.radarHeading = heading;
+        this.lastRadarHeading = heading;
+        this.velocity = 0;
+        this.energy = 100;
+        this.gunHeat = 3.0;
+        this.alive = true;
+        this.deathTime = -1;
+        this.distanceRemaining = 0;
+        this.bodyTurnRemaining = 0;
+        this.gunTurnRemaining = 0;
+        this.radarTurnRemaining = 0;
+        this.maxVelocity = Rules.MAX_VELOCITY;
+        this.firePower = 0;
+        this.adjustGunForBody = false;
+        this.adjustRadarForGun = false;
+        this.adjustRadarForBody = false;
+        this.events.clear();
+    }
+
+    void addEvent(Event e) {
+        if (robot == null) return; // roteirizados não recebem eventos
+        e.setTime(arena.time);
+        events.add(e);
+    }
+
+    // ===== RobotPeer: leitura =====
+
+    public String getName() {
+        return name;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public double getHeadingRadians() {
+        return heading;
+    }
+
+    public double getGunHeadingRadians() {
+        return gunHeading;
+    }
+
+    public double getRadarHeadingRadians() {
+        return radarHeading;
+    }
+
+    public double getGunHeat() {
+        return gunHeat;
+    }
+
+    public double getDistanceRemaining() {
+        return distanceRemaining;
+    }
+
+    public double getBodyTurnRemaining() {
+        return bodyTurnRemaining;
+    }
+
+    public double getGunTurnRemaining() {
+        return gunTurnRemaining;
+    }
+
+    public double getRadarTurnRemaining() {
+        return radarTurnRemaining;
+    }
+
+    public long getTime() {
+        return arena.time;
+    }
+
+    public int getOthers() {
+        return arena.aliveCount() - (alive ? 1 : 0);
+    }
+
+    public int getRoundNum() {
+        return arena.round;
+    }
+
+    public int getNumRounds() {
+        return arena.numRounds;
+    }
+
+    public double getBattleFieldWidth() {
+        return arena.width;
+    }
+
+    public double getBattleFieldHeight() {
+        return arena.height;
+    }
+
+    public double getGunCoolingRate() {
+        return Arena.GUN_COOLING_RATE;
+    }
+
+    public File getDataDirectory() {
+        arena.dataDir.mkdirs();
+        return arena.dataDir;
+    }
+
+    public long getDataQuotaAvailable() {
+        return Arena.DATA_QUOTA;
+    }
+
+    // ===== RobotPeer: comandos =====
+
+    public void setMove(double distance) {
+        distanceRemaining = distance;
+    }
+
+    public void setTurnBody(double radians) {
+        bodyTurnRemaining = radians;
+    }
+
+    public void setTurnGun(double radians) {
+        gunTurnRemaining = radians;
+    }
+
+    public void setTurnRadar(double radians) {
+        radarTurnRemaining = radians;
+    }
+
+    public void setMaxVelocity(double maxVelocity) {
+        this.maxVelocity = Math.min(Rules.MAX_VELOCITY, Math.abs(maxVelocity));
+    }
+
+    public Bullet setFire(double power) {
+        if (!alive || gunHeat > 0 || energy <= 0) return null;
+        power = Math.min(Math.max(power, Rules.MIN_BULLET_POWER), Rules.MAX_BULLET_POWER);
+        firePower = power;
+        return new Bullet(gunHeading, x, y, power, name, null, true);
+    }
+
+    public void setAdjustGunForBodyTurn(boolean adjust) {
+        adjustGunForBody = adjust;
+    }
+
+    public void setAdjustRadarForGunTurn(boolean adjust) {
+        adjustRadarForGun = adjust;
+    }
+
+    public void setAdjustRadarForBodyTurn(boolean adjust) {
+        adjustRadarForBody = adjust;
+    }
+
+    /**
+     * Fim do turno do robô treinado: a arena roda um tick inteiro (todos os
+     * roteirizados, balas, colisões e radar), os eventos são entregues e,
+     * se a rodada acabou, sai do run() com RoundOver.
+     */
+    public void execute() {
+        arena.step();
+        dispatchEvents();
+        if (arena.isRoundOver()) {
+            arena.finishRound(this);
+            dispatchEvents();
+            throw new RoundOver();
+        }
+    }
+
+    void dispatchEvents() {
+        for (int i = 0; i < events.size(); i++) {
+            Event e = events.get(i);
+            try {
+                dispatch(e);
+            } catch (RoundOver ro) {
+                throw ro;
+            } catch (RuntimeException ex) {
+                // Como o Robocode: erro no handler não derruba a batalha
+                ex.printStackTrace();
+            }
+        }
+        events.clear();
+    }
+
+    private void dispatch(Event e) {
+        if (e instanceof ScannedRobotEvent) robot.onScannedRobot((ScannedRobotEvent) e);
+        else if (e instanceof HitByBulletEvent) robot.onHitByBullet((HitByBulletEvent) e);
+        else if (e instanceof BulletHitEvent) robot.onBulletHit((BulletHitEvent) e);
+        else if (e instanceof BulletMissedEvent) robot.onBulletMissed((BulletMissedEvent) e);
+        else if (e instanceof HitWallEvent) robot.onHitWall((HitWallEvent) e);
+        else if (e instanceof HitRobotEvent) robot.onHitRobot((HitRobotEvent) e);
+        else if (e instanceof RobotDeathEvent) robot.onRobotDeath((RobotDeathEvent) e);
+        else if (e instanceof SkippedTurnEvent) robot.onSkippedTurn((SkippedTurnEvent) e);
+        else if (e instanceof WinEvent) robot.onWin((WinEvent) e);
+        else if (e instanceof DeathEvent) robot.onDeath((DeathEvent) e);
+        else if (e instanceof RoundEndedEvent) robot.onRoundEnded((RoundEndedEvent) e);
+        else if (e instanceof BattleEndedEvent) robot.onBattleEnded((BattleEndedEvent) e);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package MeleeSim;
+
+import robocode.AdvancedRobot;
+import robocode.BattleEndedEvent;
+
+import java.io.File;
+
+/**
+ * TrainingRunner - Treina um robô do projeto na Arena headless.
+ *
+ * Compile o robô junto com o stand-in (pasta Simulator) no lugar do
+ * robocode.jar. Cada família de robôs tem seu próprio QBrain no pacote
+ * MeleeLearning, então compile uma pasta de cada vez:
+ *
+ *   javac -encoding UTF-8 -d out Simulator/robocode/*.java Simulator/robocode/util/*.java \
+ *         Simulator/MeleeSim/*.java Simulator/MeleeLearning/*.java MeleeLearning/*.java
+ *   java -cp out MeleeSim.TrainingRunner MeleeLearning.TrainerBot 5000 7 MeleeLearning/TrainerBot.data
+ *
+ * Argumentos: classe do robô, rodadas, nº de oponentes, pasta de dados, semente.
+ * Os oponentes são sorteados de Opponents.NAMES. O cérebro fica em static
+ * no robô e sobrevive entre as rodadas, como no Robocode.
+ */
+public class TrainingRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: TrainingRunner <classeDoRobo> [rodadas] [oponentes] [pastaDeDados] [semente]");
+            return;
+        }
+        Class<? extends AdvancedRobot> botClass = Class.forName(args[0]).asSubclass(AdvancedRobot.class);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int opponents = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        File dataDir = new File(args.length > 3 ? args[3] : "sim-data");
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        Arena arena = new Arena(800, 600, opponents + 1, dataDir, seed);
+        arena.setNumRounds(rounds);
+        arena.addLearner(botClass.getSimpleName());
+        for (int i = 0; i < opponents; i++) {
+            String name = Opponents.NAMES[i % Opponents.NAMES.length];
+            arena.addScripted(name + "#" + i, Opponents.byName(name));
+        }
+
+        Result r = run(arena, botClass, rounds);
+        System.out.printf("%d rodadas, %d vitórias (%.1f%%), %d ticks em %d ms (%.0f ticks/ms)%n",
+                rounds, r.wins, 100.0 * r.wins / rounds, r.ticks, r.millis,
+                r.ticks / Math.max(1.0, r.millis));
+    }
+
+    /** Resultado agregado de uma sequência de rodadas. */
+    public static class Result {
+        public int wins;
+        public long ticks;
+        public long survivalTicks;
+        public long millis;
+    }
+
+    public static Result run(Arena arena, Class<? extends AdvancedRobot> botClass, int rounds) throws Exception {
+        Result result = new Result();
+        long start = System.nanoTime();
+        AdvancedRobot bot = null;
+        SimRobot learner = arena.getLearner();
+
+        for (int round = 0; round < rounds; round++) {
+            // Instância nova a cada rodada, como o Robocode faz
+            bot = botClass.getDeclaredConstructor().newInstance();
+            arena.startRound(round, bot);
+            try {
+                bot.run();
+                // run() terminou: o robô fica parado até a rodada acabar
+                while (true) {
+                    learner.execute();
+                }
+            } catch (RoundOver ignored) {
+                // fim normal da rodada
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            result.ticks += arena.getTime();
+            result.survivalTicks += learner.alive ? arena.getTime() : learner.deathTime;
+            if (learner.alive && arena.aliveCount() == 1) result.wins++;
+        }
+
+        if (bot != null) {
+            learner.addEvent(new BattleEndedEvent(false));
+            learner.dispatchEvents();
+        }
+        result.millis = (System.nanoTime() - start) / 1000000;
+        return result;
+    }
+}
\ No newline at end of file
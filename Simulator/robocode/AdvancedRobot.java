@@ -0,0 +1,286 @@
+package robocode;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.PrintStream;
+
+/**
+ * Stand-in do robocode.AdvancedRobot para rodar os robôs no MeleeSim.
+ *
+ * Cobre só a API que os robôs do projeto usam. Compile os robôs contra este
+ * pacote (em vez do robocode.jar) para treinar sem o Robocode; o código dos
+ * robôs não muda.
+ */
+public class AdvancedRobot {
+
+    public PrintStream out = System.out;
+
+    private RobotPeer peer;
+
+    public final void setPeer(RobotPeer peer) {
+        this.peer = peer;
+    }
+
+    public void run() {
+    }
+
+    // ===== Estado =====
+
+    public String getName() {
+        return peer.getName();
+    }
+
+    public double getX() {
+        return peer.getX();
+    }
+
+    public double getY() {
+        return peer.getY();
+    }
+
+    public double getEnergy() {
+        return peer.getEnergy();
+    }
+
+    public double getVelocity() {
+        return peer.getVelocity();
+    }
+
+    public double getHeadingRadians() {
+        return peer.getHeadingRadians();
+    }
+
+    public double getHeading() {
+        return Math.toDegrees(peer.getHeadingRadians());
+    }
+
+    public double getGunHeadingRadians() {
+        return peer.getGunHeadingRadians();
+    }
+
+    public double getRadarHeadingRadians() {
+        return peer.getRadarHeadingRadians();
+    }
+
+    public double getGunHeat() {
+        return peer.getGunHeat();
+    }
+
+    public double getGunCoolingRate() {
+        return peer.getGunCoolingRate();
+    }
+
+    public double getDistanceRemaining() {
+        return peer.getDistanceRemaining();
+    }
+
+    public double getTurnRemainingRadians() {
+        return peer.getBodyTurnRemaining();
+    }
+
+    public double getTurnRemaining() {
+        return Math.toDegrees(peer.getBodyTurnRemaining());
+    }
+
+    public double getGunTurnRemainingRadians() {
+        return peer.getGunTurnRemaining();
+    }
+
+    public double getGunTurnRemaining() {
+        return Math.toDegrees(peer.getGunTurnRemaining());
+    }
+
+    public double getRadarTurnRemainingRadians() {
+        return peer.getRadarTurnRemaining();
+    }
+
+    public double getRadarTurnRemaining() {
+        return Math.toDegrees(peer.getRadarTurnRemaining());
+    }
+
+    public long getTime() {
+        return peer.getTime();
+    }
+
+    public int getOthers() {
+        return peer.getOthers();
+    }
+
+    public int getRoundNum() {
+        return peer.getRoundNum();
+    }
+
+    public int getNumRounds() {
+        return peer.getNumRounds();
+    }
+
+    public double getBattleFieldWidth() {
+        return peer.getBattleFieldWidth();
+    }
+
+    public double getBattleFieldHeight() {
+        return peer.getBattleFieldHeight();
+    }
+
+    // ===== Comandos (só valem no próximo execute) =====
+
+    public void setAhead(double distance) {
+        peer.setMove(distance);
+    }
+
+    public void setBack(double distance) {
+        peer.setMove(-distance);
+    }
+
+    public void setMaxVelocity(double maxVelocity) {
+        peer.setMaxVelocity(maxVelocity);
+    }
+
+    public void setTurnRightRadians(double radians) {
+        peer.setTurnBody(radians);
+    }
+
+    public void setTurnLeftRadians(double radians) {
+        peer.setTurnBody(-radians);
+    }
+
+    public void setTurnRight(double degrees) {
+        peer.setTurnBody(Math.toRadians(degrees));
+    }
+
+    public void setTurnLeft(double degrees) {
+        peer.setTurnBody(-Math.toRadians(degrees));
+    }
+
+    public void setTurnGunRightRadians(double radians) {
+        peer.setTurnGun(radians);
+    }
+
+    public void setTurnGunLeftRadians(double radians) {
+        peer.setTurnGun(-radians);
+    }
+
+    public void setTurnGunRight(double degrees) {
+        peer.setTurnGun(Math.toRadians(degrees));
+    }
+
+    public void setTurnRadarRightRadians(double radians) {
+        peer.setTurnRadar(radians);
+    }
+
+    public void setTurnRadarLeftRadians(double radians) {
+        peer.setTurnRadar(-radians);
+    }
+
+    public void setTurnRadarRight(double degrees) {
+        peer.setTurnRadar(Math.toRadians(degrees));
+    }
+
+    public void setFire(double power) {
+        peer.setFire(power);
+    }
+
+    public Bullet setFireBullet(double power) {
+        return peer.setFire(power);
+    }
+
+    /** Como no Robocode: atira e já gasta o turno. */
+    public void fire(double power) {
+        peer.setFire(power);
+        execute();
+    }
+
+    public Bullet fireBullet(double power) {
+        Bullet b = peer.setFire(power);
+        execute();
+        return b;
+    }
+
+    public void execute() {
+        peer.execute();
+    }
+
+    public void setAdjustGunForRobotTurn(boolean adjust) {
+        peer.setAdjustGunForBodyTurn(adjust);
+    }
+
+    public void setAdjustRadarForGunTurn(boolean adjust) {
+        peer.setAdjustRadarForGunTurn(adjust);
+    }
+
+    public void setAdjustRadarForRobotTurn(boolean adjust) {
+        peer.setAdjustRadarForBodyTurn(adjust);
+    }
+
+    // ===== Aparência (sem efeito no headless) =====
+
+    public void setBodyColor(Color color) {
+    }
+
+    public void setGunColor(Color color) {
+    }
+
+    public void setRadarColor(Color color) {
+    }
+
+    public void setBulletColor(Color color) {
+    }
+
+    public void setScanColor(Color color) {
+    }
+
+    public void setColors(Color body, Color gun, Color radar) {
+    }
+
+    // ===== Arquivos =====
+
+    public File getDataDirectory() {
+        return peer.getDataDirectory();
+    }
+
+    public File getDataFile(String filename) {
+        return new File(peer.getDataDirectory(), filename);
+    }
+
+    public long getDataQuotaAvailable() {
+        return peer.getDataQuotaAvailable();
+    }
+
+    // ===== Eventos =====
+
+    public void onScannedRobot(ScannedRobotEvent event) {
+    }
+
+    public void onRobotDeath(RobotDeathEvent event) {
+    }
+
+    public void onBulletHit(BulletHitEvent event) {
+    }
+
+    public void onHitByBullet(HitByBulletEvent event) {
+    }
+
+    public void onBulletMissed(BulletMissedEvent event) {
+    }
+
+    public void onHitWall(HitWallEvent event) {
+    }
+
+    public void onHitRobot(HitRobotEvent event) {
+    }
+
+    public void onWin(WinEvent event) {
+    }
+
+    public void onDeath(DeathEvent event) {
+    }
+
+    public void onRoundEnded(RoundEndedEvent event) {
+    }
+
+    public void onSkippedTurn(SkippedTurnEvent event) {
+    }
+
+    public void onBattleEnded(BattleEndedEvent event) {
+    }
+}
\ No newline at end of file
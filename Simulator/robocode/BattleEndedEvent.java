@@ -0,0 +1,17 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.BattleEndedEvent.
+ */
+public class BattleEndedEvent extends Event {
+
+    private final boolean aborted;
+
+    public BattleEndedEvent(boolean aborted) {
+        this.aborted = aborted;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+}
\ No newline at end of file
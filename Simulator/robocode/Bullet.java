@@ -0,0 +1,62 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.Bullet (fotografia da bala no momento do evento).
+ */
+public class Bullet {
+
+    private final double headingRadians;
+    private final double x;
+    private final double y;
+    private final double power;
+    private final String ownerName;
+    private final String victimName;
+    private final boolean active;
+
+    public Bullet(double headingRadians, double x, double y, double power, String ownerName,
+                  String victimName, boolean active) {
+        this.headingRadians = headingRadians;
+        this.x = x;
+        this.y = y;
+        this.power = power;
+        this.ownerName = ownerName;
+        this.victimName = victimName;
+        this.active = active;
+    }
+
+    public double getHeadingRadians() {
+        return headingRadians;
+    }
+
+    public double getHeading() {
+        return Math.toDegrees(headingRadians);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getPower() {
+        return power;
+    }
+
+    public double getVelocity() {
+        return Rules.getBulletSpeed(power);
+    }
+
+    public String getName() {
+        return ownerName;
+    }
+
+    public String getVictim() {
+        return victimName;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.BulletHitEvent.
+ * O nome e a energia são do robô atingido.
+ */
+public class BulletHitEvent extends Event {
+
+    private final String name;
+    private final double energy;
+    private final Bullet bullet;
+
+    public BulletHitEvent(String name, double energy, Bullet bullet) {
+        this.name = name;
+        this.energy = energy;
+        this.bullet = bullet;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.BulletMissedEvent.
+ */
+public class BulletMissedEvent extends Event {
+
+    private final Bullet bullet;
+
+    public BulletMissedEvent(Bullet bullet) {
+        this.bullet = bullet;
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.DeathEvent.
+ */
+public class DeathEvent extends Event {
+
+    public DeathEvent() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.Event para o simulador headless (MeleeSim).
+ * Só o necessário para os robôs do projeto compilarem e rodarem fora do Robocode.
+ */
+public class Event {
+
+    private long time;
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.HitByBulletEvent.
+ */
+public class HitByBulletEvent extends Event {
+
+    private final double bearingRadians;
+    private final Bullet bullet;
+
+    public HitByBulletEvent(double bearingRadians, Bullet bullet) {
+        this.bearingRadians = bearingRadians;
+        this.bullet = bullet;
+    }
+
+    public double getBearingRadians() {
+        return bearingRadians;
+    }
+
+    public double getBearing() {
+        return Math.toDegrees(bearingRadians);
+    }
+
+    public Bullet getBullet() {
+        return bullet;
+    }
+
+    public String getName() {
+        return bullet.getName();
+    }
+
+    public double getPower() {
+        return bullet.getPower();
+    }
+
+    public double getHeadingRadians() {
+        return bullet.getHeadingRadians();
+    }
+
+    public double getVelocity() {
+        return bullet.getVelocity();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.HitRobotEvent.
+ */
+public class HitRobotEvent extends Event {
+
+    private final String name;
+    private final double bearingRadians;
+    private final double energy;
+    private final boolean myFault;
+
+    public HitRobotEvent(String name, double bearingRadians, double energy, boolean myFault) {
+        this.name = name;
+        this.bearingRadians = bearingRadians;
+        this.energy = energy;
+        this.myFault = myFault;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getBearingRadians() {
+        return bearingRadians;
+    }
+
+    public double getBearing() {
+        return Math.toDegrees(bearingRadians);
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public boolean isMyFault() {
+        return myFault;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.HitWallEvent.
+ */
+public class HitWallEvent extends Event {
+
+    private final double bearingRadians;
+
+    public HitWallEvent(double bearingRadians) {
+        this.bearingRadians = bearingRadians;
+    }
+
+    public double getBearingRadians() {
+        return bearingRadians;
+    }
+
+    public double getBearing() {
+        return Math.toDegrees(bearingRadians);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.RobotDeathEvent.
+ */
+public class RobotDeathEvent extends Event {
+
+    private final String name;
+
+    public RobotDeathEvent(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
\ No newline at end of file
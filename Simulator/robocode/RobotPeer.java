@@ -0,0 +1,77 @@
+package robocode;
+
+import java.io.File;
+
+/**
+ * Lado "motor" de um robô no simulador headless.
+ *
+ * O AdvancedRobot de mentira só repassa as chamadas para cá; quem implementa
+ * (MeleeSim.SimRobot) aplica as regras do Robocode. execute() avança a
+ * arena um tick e entrega os eventos antes de voltar para o robô.
+ */
+public interface RobotPeer {
+
+    String getName();
+
+    double getX();
+
+    double getY();
+
+    double getEnergy();
+
+    double getVelocity();
+
+    double getHeadingRadians();
+
+    double getGunHeadingRadians();
+
+    double getRadarHeadingRadians();
+
+    double getGunHeat();
+
+    double getDistanceRemaining();
+
+    double getBodyTurnRemaining();
+
+    double getGunTurnRemaining();
+
+    double getRadarTurnRemaining();
+
+    long getTime();
+
+    int getOthers();
+
+    int getRoundNum();
+
+    int getNumRounds();
+
+    double getBattleFieldWidth();
+
+    double getBattleFieldHeight();
+
+    double getGunCoolingRate();
+
+    void setMove(double distance);
+
+    void setTurnBody(double radians);
+
+    void setTurnGun(double radians);
+
+    void setTurnRadar(double radians);
+
+    void setMaxVelocity(double maxVelocity);
+
+    Bullet setFire(double power);
+
+    void setAdjustGunForBodyTurn(boolean adjust);
+
+    void setAdjustRadarForGunTurn(boolean adjust);
+
+    void setAdjustRadarForBodyTurn(boolean adjust);
+
+    void execute();
+
+    File getDataDirectory();
+
+    long getDataQuotaAvailable();
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.RoundEndedEvent.
+ */
+public class RoundEndedEvent extends Event {
+
+    private final int round;
+    private final int turns;
+    private final int totalTurns;
+
+    public RoundEndedEvent(int round, int turns, int totalTurns) {
+        this.round = round;
+        this.turns = turns;
+        this.totalTurns = totalTurns;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getTotalTurns() {
+        return totalTurns;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.ScannedRobotEvent.
+ */
+public class ScannedRobotEvent extends Event {
+
+    private final String name;
+    private final double energy;
+    private final double bearingRadians;
+    private final double distance;
+    private final double headingRadians;
+    private final double velocity;
+    private final boolean sentryRobot;
+
+    public ScannedRobotEvent(String name, double energy, double bearingRadians, double distance, double headingRadians, double velocity, boolean sentryRobot) {
+        this.name = name;
+        this.energy = energy;
+        this.bearingRadians = bearingRadians;
+        this.distance = distance;
+        this.headingRadians = headingRadians;
+        this.velocity = velocity;
+        this.sentryRobot = sentryRobot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getBearingRadians() {
+        return bearingRadians;
+    }
+
+    public double getBearing() {
+        return Math.toDegrees(bearingRadians);
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getHeadingRadians() {
+        return headingRadians;
+    }
+
+    public double getHeading() {
+        return Math.toDegrees(headingRadians);
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public boolean isSentryRobot() {
+        return sentryRobot;
+    }
+}
\ No newline at end of file
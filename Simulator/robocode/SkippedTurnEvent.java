@@ -0,0 +1,17 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.SkippedTurnEvent.
+ */
+public class SkippedTurnEvent extends Event {
+
+    private final long skippedTurn;
+
+    public SkippedTurnEvent(long skippedTurn) {
+        this.skippedTurn = skippedTurn;
+    }
+
+    public long getSkippedTurn() {
+        return skippedTurn;
+    }
+}
\ No newline at end of file
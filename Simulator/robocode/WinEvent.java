@@ -0,0 +1,10 @@
+package robocode;
+
+/**
+ * Stand-in do robocode.WinEvent.
+ */
+public class WinEvent extends Event {
+
+    public WinEvent() {
+    }
+}
\ No newline at end of file
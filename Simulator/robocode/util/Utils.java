@@ -0,0 +1,36 @@
+package robocode.util;
+
+/**
+ * Stand-in do robocode.util.Utils (normalização de ângulos).
+ */
+public class Utils {
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private Utils() {
+    }
+
+    public static double normalAbsoluteAngle(double angle) {
+        return (angle %= TWO_PI) >= 0 ? angle : (angle + TWO_PI);
+    }
+
+    public static double normalRelativeAngle(double angle) {
+        return (angle %= TWO_PI) >= 0
+                ? (angle < Math.PI) ? angle : angle - TWO_PI
+                : (angle >= -Math.PI) ? angle : angle + TWO_PI;
+    }
+
+    public static double normalAbsoluteAngleDegrees(double angle) {
+        return (angle %= 360) >= 0 ? angle : (angle + 360);
+    }
+
+    public static double normalRelativeAngleDegrees(double angle) {
+        return (angle %= 360) >= 0
+                ? (angle < 180) ? angle : angle - 360
+                : (angle >= -180) ? angle : angle + 360;
+    }
+
+    public static boolean isNear(double value1, double value2) {
+        return Math.abs(value1 - value2) < .00001;
+    }
+}
\ No newline at end of file
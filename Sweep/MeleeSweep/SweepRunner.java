@@ -0,0 +1,492 @@
+package MeleeSweep;
+
+import robocode.BattleResults;
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleErrorEvent;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * SweepRunner - Varredura de hiperparâmetros em batalhas reais do Robocode.
+ *
+ * Cada configuração é um tuning.properties (ver MeleeLearning.Tuning) com
+ * uma combinação dos parâmetros da varredura. O runner sobe um processo por
+ * núcleo; cada um tem a sua cópia do Robocode (work/worker-N) e com isso a
+ * sua pasta de dados do robô, e roda as batalhas sem interface pela API de
+ * controle (RobocodeEngine + BattleSpecification). Um RobocodeEngine por
+ * processo: o motor tem estado global e não divide a JVM com outro.
+ *
+ * Por configuração, a pasta de dados é esvaziada (ou recebe a cópia de
+ * seed_data, para todas partirem do mesmo cérebro), ganha o tuning.properties
+ * e passa por battles batalhas seguidas: o cérebro aprende de uma para a
+ * outra, como no treino de verdade. O relatório dá, por configuração, a
+ * taxa de vitória (1º lugar / rodadas) de todas as batalhas e da última
+ * (depois de aprender), e o score médio por batalha; também vai para o
+ * sweep-results.csv na pasta de trabalho.
+ *
+ *   java -Xmx512M -cp out:robocode/libs/* MeleeSweep.SweepRunner robocode sweep.properties
+ *
+ * Argumentos: pasta do Robocode (com o robô compilado em robots/), arquivo
+ * da varredura, nº de processos (padrão: núcleos), pasta de trabalho
+ * (padrão: sweep-work). Os argumentos da JVM (-Xmx, -D...) passam para os
+ * processos. O arquivo da varredura:
+ *
+ *   robot = MeleeLearning.UltraMeleeBot*
+ *   opponents = sample.Walls,sample.SpinBot,sample.Crazy,sample.Fire
+ *   rounds = 35           battles = 3          battlefield = 800x600
+ *   search = grid         (ou random, com samples = 30 e seed = 1)
+ *   data = MeleeLearning/UltraMeleeBot.data   (dentro de robots/; padrão: do nome)
+ *   seed_data = cerebro-inicial               (opcional)
+ *   param.alpha = 0.05,0.1,0.2                (lista)
+ *   param.hold_ticks = 10..30                 (faixa: sorteio no random,
+ *                                              grid_steps pontos no grid)
+ *
+ * Faixa com as duas pontas inteiras sorteia inteiros.
+ */
+public class SweepRunner {
+
+    private static final String TUNING_FILE = "tuning.properties"; // MeleeLearning.Tuning.FILE
+    private static final String PARAM_PREFIX = "param.";
+    private static final String WORKER_FLAG = "--worker";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(WORKER_FLAG)) {
+            worker(new File(args[1]), new File(args[2]));
+            return;
+        }
+        if (args.length < 2) {
+            System.out.println("Uso: SweepRunner <pastaDoRobocode> <varredura.properties> [processos] [pastaDeTrabalho]");
+            return;
+        }
+        File home = new File(args[0]);
+        File sweepFile = new File(args[1]);
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        File work = new File(args.length > 3 ? args[3] : "sweep-work");
+
+        Sweep sweep = new Sweep(sweepFile);
+        List<Map<String, String>> configs = sweep.configurations();
+        if (configs.isEmpty()) {
+            System.out.println("Nenhuma configuração: defina ao menos um param.<chave>.");
+            return;
+        }
+        workers = Math.max(1, Math.min(workers, configs.size()));
+        System.out.printf("%d configurações x %d batalhas de %d rodadas, %d processos%n",
+                configs.size(), sweep.battles, sweep.rounds, workers);
+
+        Result[] results = new Result[configs.size()];
+        AtomicInteger nextConfig = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            File copy = new File(work, "worker-" + w);
+            copyTree(home.toPath(), copy.toPath());
+            Thread t = new Thread(() -> feed(copy, sweepFile, sweep, configs, nextConfig, results),
+                    "sweep-" + w);
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) t.join();
+
+        report(configs, results, sweep, new File(work, "sweep-results.csv"));
+    }
+
+    // =================== PROCESSO PRINCIPAL ===================
+
+    /** Um processo de batalha: pega a próxima configuração até acabarem. */
+    private static void feed(File copy, File sweepFile, Sweep sweep, List<Map<String, String>> configs,
+                             AtomicInteger nextConfig, Result[] results) {
+        Process process;
+        try {
+            process = spawn(copy, sweepFile);
+        } catch (IOException e) {
+            System.out.println("ERRO: não subiu o processo em " + copy + ": " + e.getMessage());
+            return;
+        }
+        File dataDir = new File(new File(copy, "robots"), sweep.dataDir);
+        try (PrintWriter toWorker = new PrintWriter(process.getOutputStream(), true);
+             BufferedReader fromWorker = new BufferedReader(
+                     new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            int i;
+            while ((i = nextConfig.getAndIncrement()) < configs.size()) {
+                prepare(dataDir, sweep.seedData, configs.get(i));
+                toWorker.println("RUN");
+                String line;
+                while ((line = fromWorker.readLine()) != null && !line.startsWith("RESULT ")) {
+                    if (line.startsWith("ERRO")) System.out.println(copy.getName() + ": " + line);
+                }
+                if (line == null) {
+                    System.out.println("ERRO: processo em " + copy + " terminou na configuração " + i);
+                    return;
+                }
+                results[i] = Result.parse(line);
+                System.out.printf("[%d/%d] %s -> %s%n", i + 1, configs.size(), describe(configs.get(i)), results[i]);
+            }
+            toWorker.println("QUIT");
+        } catch (IOException e) {
+            System.out.println("ERRO: " + copy + ": " + e.getMessage());
+        } finally {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Process spawn(File copy, File sweepFile) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SweepRunner.class.getName());
+        command.add(WORKER_FLAG);
+        command.add(copy.getAbsolutePath());
+        command.add(sweepFile.getAbsolutePath());
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectError(new File(copy, "worker.log"));
+        return pb.start();
+    }
+
+    /** Pasta de dados limpa (ou a semente) mais o tuning.properties da configuração. */
+    private static void prepare(File dataDir, File seedData, Map<String, String> config) throws IOException {
+        deleteTree(dataDir.toPath());
+        if (seedData != null) copyTree(seedData.toPath(), dataDir.toPath());
+        else Files.createDirectories(dataDir.toPath());
+        try (PrintWriter out = new PrintWriter(new File(dataDir, TUNING_FILE), "UTF-8")) {
+            out.println("# Gerado pelo SweepRunner");
+            for (Map.Entry<String, String> e : config.entrySet()) out.println(e.getKey() + " = " + e.getValue());
+        }
+    }
+
+    private static void report(List<Map<String, String>> configs, Result[] results, Sweep sweep, File csv)
+            throws IOException {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) if (results[i] != null) order.add(i);
+        order.sort(Comparator.comparingDouble((Integer i) -> -results[i].lastWinRate())
+                .thenComparingDouble(i -> -results[i].meanScore()));
+
+        System.out.println();
+        System.out.printf("%-5s %8s %8s %10s  %s%n", "#", "vit%", "vit%fim", "score", "configuração");
+        for (int i : order) {
+            Result r = results[i];
+            System.out.printf(Locale.ROOT, "%-5d %7.1f%% %7.1f%% %10.1f  %s%n", i + 1, 100 * r.winRate(),
+                    100 * r.lastWinRate(), r.meanScore(), describe(configs.get(i)));
+        }
+        if (order.size() < configs.size()) {
+            System.out.println("AVISO: " + (configs.size() - order.size()) + " configurações sem resultado.");
+        }
+
+        try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+            StringBuilder header = new StringBuilder("config");
+            for (String key : sweep.params.keySet()) header.append(',').append(key);
+            out.println(header + ",batalhas,rodadas,vitorias,vitoria_taxa,vitoria_taxa_ultima,score_medio");
+            for (int i : order) {
+                StringBuilder row = new StringBuilder().append(i + 1);
+                for (String key : sweep.params.keySet()) row.append(',').append(configs.get(i).get(key));
+                Result r = results[i];
+                out.println(row + String.format(Locale.ROOT, ",%d,%d,%d,%.4f,%.4f,%.1f", r.battles, r.rounds,
+                        r.firsts, r.winRate(), r.lastWinRate(), r.meanScore()));
+            }
+        }
+        System.out.println("Resultados: " + csv.getAbsolutePath());
+    }
+
+    private static String describe(Map<String, String> config) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : config.entrySet()) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(e.getKey()).append('=').append(e.getValue());
+        }
+        return sb.toString();
+    }
+
+    // =================== PROCESSO DE BATALHA ===================
+
+    /**
+     * Um RobocodeEngine na cópia home. A cada "RUN" do processo principal
+     * (que já preparou a pasta de dados), roda as batalhas da configuração e
+     * responde "RESULT batalhas rodadas vitórias score vitóriasÚltima".
+     */
+    private static void worker(File home, File sweepFile) throws IOException {
+        // O stdout é o canal com o processo principal: o que o Robocode e os
+        // robôs imprimem vai para o log
+        PrintStream channel = System.out;
+        System.setOut(System.err);
+
+        Sweep sweep = new Sweep(sweepFile);
+        RobocodeEngine engine = new RobocodeEngine(home);
+        engine.setVisible(false);
+        Collector collector = new Collector(sweep.robot);
+        engine.addBattleListener(collector);
+
+        String list = sweep.robot + "," + String.join(",", sweep.opponents);
+        RobotSpecification[] robots = engine.getLocalRepository(list);
+        if (robots.length != 1 + sweep.opponents.size()) {
+            channel.println("ERRO: robôs não encontrados em " + home + ": " + list);
+        }
+        BattleSpecification battle = new BattleSpecification(sweep.rounds,
+                new BattlefieldSpecification(sweep.width, sweep.height), robots);
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String command;
+        try {
+            while ((command = in.readLine()) != null && command.equals("RUN")) {
+                int firsts = 0, rounds = 0, lastFirsts = 0;
+                double score = 0;
+                for (int b = 0; b < sweep.battles; b++) {
+                    collector.reset();
+                    engine.runBattle(battle, true);
+                    if (collector.error != null) channel.println("ERRO: " + collector.error);
+                    firsts += collector.firsts;
+                    rounds += sweep.rounds;
+                    score += collector.score;
+                    lastFirsts = collector.firsts;
+                }
+                channel.printf(Locale.ROOT, "RESULT %d %d %d %.3f %d%n", sweep.battles, rounds, firsts, score,
+                        lastFirsts);
+            }
+        } finally {
+            engine.close();
+        }
+        System.exit(0);
+    }
+
+    /** Resultado do nosso robô na última batalha. */
+    private static final class Collector extends BattleAdaptor {
+        private final String robot;
+        int firsts;
+        double score;
+        String error;
+
+        Collector(String robot) {
+            // "Pacote.Classe*" (versão de desenvolvimento) vem como "Pacote.Classe*" ou sem o '*'
+            this.robot = robot.endsWith("*") ? robot.substring(0, robot.length() - 1) : robot;
+        }
+
+        void reset() {
+            firsts = 0;
+            score = 0;
+            error = null;
+        }
+
+        @Override
+        public void onBattleCompleted(BattleCompletedEvent event) {
+            for (BattleResults r : event.getIndexedResults()) {
+                if (r.getTeamLeaderName().startsWith(robot)) {
+                    firsts = r.getFirsts();
+                    score = r.getScore();
+                    return;
+                }
+            }
+            error = "nosso robô não está nos resultados";
+        }
+
+        @Override
+        public void onBattleError(BattleErrorEvent event) {
+            error = event.getError();
+        }
+    }
+
+    // =================== VARREDURA ===================
+
+    private static final class Sweep {
+        final String robot;
+        final List<String> opponents = new ArrayList<>();
+        final int rounds, battles;
+        final int width, height;
+        final String dataDir;
+        final File seedData;
+        final boolean random;
+        final int samples, gridSteps;
+        final long seed;
+        final Map<String, String> params = new LinkedHashMap<>(); // chave -> especificação
+
+        Sweep(File file) throws IOException {
+            Properties p = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                p.load(in);
+            }
+            robot = p.getProperty("robot", "MeleeLearning.UltraMeleeBot*").trim();
+            for (String o : p.getProperty("opponents", "sample.Walls,sample.SpinBot,sample.Crazy").split(",")) {
+                if (!o.trim().isEmpty()) opponents.add(o.trim());
+            }
+            rounds = Integer.parseInt(p.getProperty("rounds", "35").trim());
+            battles = Integer.parseInt(p.getProperty("battles", "1").trim());
+            String[] field = p.getProperty("battlefield", "800x600").trim().split("x");
+            width = Integer.parseInt(field[0]);
+            height = Integer.parseInt(field[1]);
+            String className = robot.endsWith("*") ? robot.substring(0, robot.length() - 1) : robot;
+            dataDir = p.getProperty("data", className.replace('.', '/') + ".data").trim();
+            String seedPath = p.getProperty("seed_data");
+            seedData = seedPath == null ? null : new File(file.getAbsoluteFile().getParentFile(), seedPath.trim());
+            random = p.getProperty("search", "grid").trim().equals("random");
+            samples = Integer.parseInt(p.getProperty("samples", "20").trim());
+            gridSteps = Math.max(2, Integer.parseInt(p.getProperty("grid_steps", "3").trim()));
+            seed = Long.parseLong(p.getProperty("seed", "1").trim());
+            // Ordem estável das chaves: o Properties não guarda a do arquivo
+            p.stringPropertyNames().stream().filter(k -> k.startsWith(PARAM_PREFIX)).sorted()
+                    .forEach(k -> params.put(k.substring(PARAM_PREFIX.length()), p.getProperty(k).trim()));
+        }
+
+        List<Map<String, String>> configurations() {
+            List<Map<String, String>> out = new ArrayList<>();
+            if (params.isEmpty()) return out;
+            if (random) {
+                Random rnd = new Random(seed);
+                for (int s = 0; s < samples; s++) {
+                    Map<String, String> config = new LinkedHashMap<>();
+                    for (Map.Entry<String, String> e : params.entrySet()) {
+                        config.put(e.getKey(), sample(e.getValue(), rnd));
+                    }
+                    out.add(config);
+                }
+                return out;
+            }
+            out.add(new LinkedHashMap<>());
+            for (Map.Entry<String, String> e : params.entrySet()) {
+                List<Map<String, String>> grown = new ArrayList<>();
+                for (Map<String, String> partial : out) {
+                    for (String v : values(e.getValue())) {
+                        Map<String, String> config = new LinkedHashMap<>(partial);
+                        config.put(e.getKey(), v);
+                        grown.add(config);
+                    }
+                }
+                out = grown;
+            }
+            return out;
+        }
+
+        /** Valores do grid: a lista, ou gridSteps pontos da faixa. */
+        private List<String> values(String spec) {
+            List<String> out = new ArrayList<>();
+            int range = spec.indexOf("..");
+            if (range < 0) {
+                for (String v : spec.split(",")) if (!v.trim().isEmpty()) out.add(v.trim());
+                return out;
+            }
+            String lo = spec.substring(0, range).trim(), hi = spec.substring(range + 2).trim();
+            double a = Double.parseDouble(lo), b = Double.parseDouble(hi);
+            boolean integral = isInteger(lo) && isInteger(hi);
+            for (int i = 0; i < gridSteps; i++) {
+                double v = a + (b - a) * i / (gridSteps - 1);
+                String s = integral ? Long.toString(Math.round(v)) : format(v);
+                if (!out.contains(s)) out.add(s);
+            }
+            return out;
+        }
+
+        private static String sample(String spec, Random rnd) {
+            int range = spec.indexOf("..");
+            if (range < 0) {
+                String[] options = spec.split(",");
+                return options[rnd.nextInt(options.length)].trim();
+            }
+            String lo = spec.substring(0, range).trim(), hi = spec.substring(range + 2).trim();
+            if (isInteger(lo) && isInteger(hi)) {
+                long a = Long.parseLong(lo), b = Long.parseLong(hi);
+                return Long.toString(a + (long) (rnd.nextDouble() * (b - a + 1)));
+            }
+            double a = Double.parseDouble(lo), b = Double.parseDouble(hi);
+            return format(a + rnd.nextDouble() * (b - a));
+        }
+
+        private static boolean isInteger(String s) {
+            try {
+                Long.parseLong(s);
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private static String format(double v) {
+            return String.format(Locale.ROOT, "%.4g", v);
+        }
+    }
+
+    private static final class Result {
+        final int battles, rounds, firsts, lastFirsts;
+        final double score;
+
+        private Result(int battles, int rounds, int firsts, double score, int lastFirsts) {
+            this.battles = battles;
+            this.rounds = rounds;
+            this.firsts = firsts;
+            this.score = score;
+            this.lastFirsts = lastFirsts;
+        }
+
+        static Result parse(String line) {
+            String[] f = line.trim().split(" ");
+            return new Result(Integer.parseInt(f[1]), Integer.parseInt(f[2]), Integer.parseInt(f[3]),
+                    Double.parseDouble(f[4]), Integer.parseInt(f[5]));
+        }
+
+        double winRate() {
+            return rounds == 0 ? 0 : (double) firsts / rounds;
+        }
+
+        double lastWinRate() {
+            return battles == 0 ? 0 : (double) lastFirsts / (rounds / battles);
+        }
+
+        double meanScore() {
+            return battles == 0 ? 0 : score / battles;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "vitórias %.1f%% (última %.1f%%), score %.1f",
+                    100 * winRate(), 100 * lastWinRate(), meanScore());
+        }
+    }
+
+    // =================== ARQUIVOS ===================
+
+    private static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> paths = Files.walk(from)) {
+            for (Path src : (Iterable<Path>) paths::iterator) {
+                Path dest = to.resolve(from.relativize(src).toString());
+                if (Files.isDirectory(src)) Files.createDirectories(dest);
+                else Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            for (int i = all.size() - 1; i >= 0; i--) Files.delete(all.get(i));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,415 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * BoundedQBrain - Q-Learning com memória limitada a maxRows estados.
+ *
+ * Para espaços de estados grandes demais para a tabela densa do QBrain (ou
+ * para a cota da pasta de dados do robô). Só os estados visitados ocupam
+ * linha; cheio, o estado novo toma o lugar de uma linha pouco visitada e
+ * usada há mais tempo (olha EVICTION_SAMPLES linhas sorteadas, então o
+ * custo não cresce com maxRows).
+ *
+ * Cada linha guarda Q como short com uma escala por linha (o maior |Q| da
+ * linha vira 32767), e as visitas como char saturado em 65535. Tudo em
+ * arrays paralelos por slot, e o estado -> slot é endereçamento aberto num
+ * int[]: nada de HashMap, boxing ou double[] por linha. Com 4 ações são
+ * ~40 bytes por estado na memória e 24 no arquivo.
+ *
+ * O formato em memória é o do arquivo (BrainFile KEY_SPARSE_Q16): carregar
+ * é copiar os shorts, e uma linha só vira double quando é lida. Também lê
+ * um cérebro denso do QBrain (só as linhas já aprendidas entram).
+ *
+ * Passo de aprendizado e exploração seguem as visitas, como no QBrain.
+ */
+public class BoundedQBrain implements Brain {
+
+    private static final int EVICTION_SAMPLES = 16;
+    private static final int FREE = -1;
+    static final double QMAX = Short.MAX_VALUE;
+
+    final StateSpace space;
+    final int numActions;
+    final int maxRows;
+    private final Random random = new Random();
+    private boolean changed = false; // aprendeu algo desde o último save/load
+    private LearningMetrics metrics = null;
+
+    // Por slot
+    final int[] stateOf;  // FREE = slot livre
+    final float[] scale;  // Q = q * scale / 32767
+    final int[] lastUse;  // relógio da última leitura/escrita
+    final short[] q;      // maxRows * numActions
+    final char[] visits;  // maxRows * numActions, satura em 65535
+    int rows = 0;
+    private int clock = 0;
+
+    // Estado -> slot: endereçamento aberto (sondagem linear), FREE = vazio
+    private final int[] index;
+    private final int mask;
+
+    // Rascunho: uma linha em double
+    private final double[] row;
+
+    public BoundedQBrain(StateSpace space, int numActions, int maxRows) {
+        this.space = space;
+        this.numActions = numActions;
+        this.maxRows = maxRows;
+        this.stateOf = new int[maxRows];
+        this.scale = new float[maxRows];
+        this.lastUse = new int[maxRows];
+        this.q = new short[maxRows * numActions];
+        this.visits = new char[maxRows * numActions];
+        int size = Integer.highestOneBit(Math.max(2, maxRows * 2 - 1)) << 1; // potência de 2 >= 2x
+        this.index = new int[size];
+        this.mask = size - 1;
+        this.row = new double[numActions];
+        Arrays.fill(stateOf, FREE);
+        Arrays.fill(index, FREE);
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    // ===== Linhas =====
+
+    private static int hash(int state) {
+        int h = state * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Slot do estado, ou FREE se ele não tem linha. */
+    int slotOf(int state) {
+        for (int i = hash(state) & mask; ; i = (i + 1) & mask) {
+            int slot = index[i];
+            if (slot == FREE) return FREE;
+            if (stateOf[slot] == state) return slot;
+        }
+    }
+
+    /** Slot do estado, criando a linha (e despejando outra, se cheio). */
+    private int slotFor(int state) {
+        int slot = slotOf(state);
+        if (slot != FREE) return slot;
+
+        if (rows < maxRows) {
+            slot = rows++;
+        } else {
+            slot = victim();
+            unlink(stateOf[slot]);
+        }
+        stateOf[slot] = state;
+        scale[slot] = 0;
+        int base = slot * numActions;
+        for (int a = 0; a < numActions; a++) {
+            q[base + a] = 0;
+            visits[base + a] = 0;
+        }
+        int i = hash(state) & mask;
+        while (index[i] != FREE) i = (i + 1) & mask;
+        index[i] = slot;
+        return slot;
+    }
+
+    /** Entre linhas sorteadas, a menos visitada; empate: a usada há mais tempo. */
+    private int victim() {
+        int best = random.nextInt(rows);
+        long bestVisits = rowVisits(best);
+        for (int n = 1; n < EVICTION_SAMPLES; n++) {
+            int slot = random.nextInt(rows);
+            long v = rowVisits(slot);
+            if (v < bestVisits || (v == bestVisits && clock - lastUse[slot] > clock - lastUse[best])) {
+                best = slot;
+                bestVisits = v;
+            }
+        }
+        return best;
+    }
+
+    private long rowVisits(int slot) {
+        int base = slot * numActions;
+        long n = 0;
+        for (int a = 0; a < numActions; a++) n += visits[base + a];
+        return n;
+    }
+
+    /** Tira o estado do índice, puxando para trás quem sondou por cima dele. */
+    private void unlink(int state) {
+        int i = hash(state) & mask;
+        while (stateOf[index[i]] != state) i = (i + 1) & mask;
+        int hole = i;
+        for (int j = (hole + 1) & mask; index[j] != FREE; j = (j + 1) & mask) {
+            int home = hash(stateOf[index[j]]) & mask;
+            // j pode ir para o buraco se a posição de origem dele não está entre hole (exclusive) e j
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                index[hole] = index[j];
+                hole = j;
+            }
+        }
+        index[hole] = FREE;
+    }
+
+    private double value(int slot, int action) {
+        return q[slot * numActions + action] * (double) scale[slot] / QMAX;
+    }
+
+    /** Linha do slot em row[] (double), para mexer e regravar com pack(). */
+    private void unpack(int slot) {
+        int base = slot * numActions;
+        double s = scale[slot] / QMAX;
+        for (int a = 0; a < numActions; a++) row[a] = q[base + a] * s;
+    }
+
+    /** Requantiza row[] no slot com a escala nova (maior |Q| da linha). */
+    private void pack(int slot) {
+        double max = 0;
+        for (int a = 0; a < numActions; a++) max = Math.max(max, Math.abs(row[a]));
+        float sc = (float) max;
+        scale[slot] = sc;
+        int base = slot * numActions;
+        for (int a = 0; a < numActions; a++) {
+            q[base + a] = (sc == 0f) ? 0 : (short) Math.round(row[a] / sc * QMAX);
+        }
+    }
+
+    private void add(int slot, int action, double amount) {
+        unpack(slot);
+        row[action] += amount;
+        pack(slot);
+        lastUse[slot] = clock;
+        changed = true;
+    }
+
+    private double maxQ(int state) {
+        int slot = slotOf(state);
+        if (slot == FREE) return 0.0;
+        double max = value(slot, 0);
+        for (int a = 1; a < numActions; a++) max = Math.max(max, value(slot, a));
+        return max;
+    }
+
+    // ===== Brain =====
+
+    @Override
+    public int getBestAction(int state) {
+        int slot = slotOf(state);
+        if (slot == FREE) return 0;
+        lastUse[slot] = ++clock;
+        int base = slot * numActions;
+        int best = 0;
+        for (int a = 1; a < numActions; a++) {
+            if (q[base + a] > q[base + best]) best = a; // mesma escala na linha: compara os shorts
+        }
+        return best;
+    }
+
+    @Override
+    public int getAction(int state, boolean training) {
+        if (training && random.nextDouble() < epsilon(state)) {
+            return leastTried(state);
+        }
+        return getBestAction(state);
+    }
+
+    private double epsilon(int state) {
+        int slot = slotOf(state);
+        long n = (slot == FREE) ? 0 : rowVisits(slot);
+        return Math.max(QBrain.MIN_EPSILON, QBrain.EPSILON * QBrain.EXPLORE_VISITS / (QBrain.EXPLORE_VISITS + n));
+    }
+
+    private int leastTried(int state) {
+        int slot = slotOf(state);
+        if (slot == FREE) return random.nextInt(numActions);
+        int base = slot * numActions;
+        int best = 0;
+        int ties = 1;
+        for (int a = 1; a < numActions; a++) {
+            int v = visits[base + a];
+            if (v < visits[base + best]) {
+                best = a;
+                ties = 1;
+            } else if (v == visits[base + best] && random.nextInt(++ties) == 0) {
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    private double alpha(int slot, int action) {
+        int n = visits[slot * numActions + action];
+        return n <= 1 ? 1.0 : Math.max(QBrain.ALPHA, 1.0 / n);
+    }
+
+    private void countVisit(int slot, int action) {
+        int i = slot * numActions + action;
+        if (visits[i] < Character.MAX_VALUE) visits[i]++;
+    }
+
+    @Override
+    public void learn(int oldState, int action, double reward, int newState) {
+        if (oldState < 0) return;
+        double maxFutureQ = (newState != QBrain.TERMINAL) ? maxQ(newState) : 0.0;
+        int slot = slotFor(oldState);
+        boolean fresh = metrics != null && rowVisits(slot) == 0;
+        countVisit(slot, action);
+        clock++;
+        double error = reward + QBrain.GAMMA * maxFutureQ - value(slot, action);
+        add(slot, action, alpha(slot, action) * error);
+        if (metrics != null) metrics.learned(error, fresh);
+    }
+
+    /** Q(λ) de Watkins como no QBrain; rastro de estado já despejado é ignorado. */
+    @Override
+    public void learn(int oldState, int action, double reward, int newState, EligibilityTraces traces) {
+        if (oldState < 0) return;
+        double maxFutureQ = (newState != QBrain.TERMINAL) ? maxQ(newState) : 0.0;
+        int slot = slotFor(oldState);
+        double currentQ = value(slot, action);
+        for (int a = 0; a < numActions; a++) {
+            if (value(slot, a) > currentQ) {
+                traces.clear(); // exploração: corta os rastros
+                break;
+            }
+        }
+        traces.visit(oldState * numActions + action);
+        boolean fresh = metrics != null && rowVisits(slot) == 0;
+        countVisit(slot, action);
+        clock++;
+
+        double error = reward + QBrain.GAMMA * maxFutureQ - currentQ;
+        if (metrics != null) metrics.learned(error, fresh);
+        for (int i = 0; i < traces.count; i++) {
+            int t = traces.index[i];
+            int s = slotOf(t / numActions);
+            if (s == FREE) continue;
+            int a = t % numActions;
+            add(s, a, alpha(s, a) * error * traces.value[i]);
+        }
+
+        if (newState == QBrain.TERMINAL) traces.clear();
+        else traces.decay(QBrain.GAMMA * QBrain.LAMBDA);
+    }
+
+    @Override
+    public void replay(ReplayBuffer buffer, int batchSize) {
+        if (buffer.size() == 0) return;
+        for (int n = 0; n < batchSize; n++) {
+            int i = buffer.sample();
+            int state = buffer.state(i);
+            if (state < 0) continue;
+            int slot = slotOf(state);
+            if (slot == FREE) continue; // despejado desde então
+            int newState = buffer.nextState(i);
+            int action = buffer.action(i);
+            double maxFutureQ = (newState != QBrain.TERMINAL) ? maxQ(newState) : 0.0;
+            add(slot, action, alpha(slot, action) * (buffer.reward(i) + QBrain.GAMMA * maxFutureQ - value(slot, action)));
+        }
+    }
+
+    @Override
+    public void setMetrics(LearningMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // ===== Persistência =====
+
+    /** Snapshot completo (é pequeno); save sem nada aprendido no meio não grava. */
+    @Override
+    public void save(File file) {
+        if (!changed && file.exists()) return;
+        try {
+            int rowBytes = BrainFile.sparseRowBytes(numActions);
+            ByteBuffer buf = BrainFile.allocate(BrainFile.VERSION, space.schemaId(), numActions,
+                    BrainFile.KEY_SPARSE_Q16, rows, rows * rowBytes);
+            for (int slot = 0; slot < rows; slot++) {
+                buf.putInt(stateOf[slot]).putFloat(scale[slot]);
+                int base = slot * numActions;
+                for (int a = 0; a < numActions; a++) buf.putShort(q[base + a]);
+                for (int a = 0; a < numActions; a++) buf.putChar(visits[base + a]);
+            }
+            buf.flip();
+            BrainFile.writeReplacing(file, buf);
+            changed = false;
+            System.out.println("Cérebro salvo: " + file.getAbsolutePath() + " (" + rows + "/" + maxRows + " linhas)");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void load(File file) {
+        if (!file.exists() || file.length() == 0) return;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = BrainFile.readAll(ch);
+            BrainFile.Header h = BrainFile.readHeader(buf);
+            if (h.schemaId != space.schemaId()) {
+                System.out.println("AVISO: cérebro com outro espaço de estados, ignorado.");
+                return;
+            }
+            if (h.keyFormat == BrainFile.KEY_SPARSE_Q16) {
+                loadSparse(buf, h);
+            } else {
+                loadDense(buf, h);
+            }
+            System.out.println("Cérebro carregado! Estados: " + rows + "/" + maxRows);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Copia os shorts como estão: cada linha só vira double quando for lida
+    private void loadSparse(ByteBuffer buf, BrainFile.Header h) {
+        int cols = Math.min(h.numActions, numActions);
+        for (int r = 0; r < h.numStates; r++) {
+            int start = buf.position();
+            int state = buf.getInt();
+            float sc = buf.getFloat();
+            if (state < 0 || state >= space.size()) {
+                buf.position(start + BrainFile.sparseRowBytes(h.numActions));
+                continue;
+            }
+            int slot = slotFor(state);
+            scale[slot] = sc;
+            int base = slot * numActions;
+            int qStart = buf.position();
+            int vStart = qStart + h.numActions * 2;
+            for (int a = 0; a < cols; a++) {
+                q[base + a] = buf.getShort(qStart + a * 2);
+                visits[base + a] = buf.getChar(vStart + a * 2);
+            }
+            buf.position(start + BrainFile.sparseRowBytes(h.numActions));
+        }
+    }
+
+    // Cérebro do QBrain: entram as linhas com algum valor aprendido
+    private void loadDense(ByteBuffer buf, BrainFile.Header h) {
+        int states = Math.min(h.numStates, space.size());
+        double[] table = new double[states * numActions];
+        int[] counts = new int[states * numActions];
+        BrainFile.readTable(buf, h, table, states, numActions);
+        BrainFile.readVisits(buf, h, counts, states, numActions);
+        for (int s = 0; s < states; s++) {
+            int base = s * numActions;
+            boolean learned = false;
+            for (int a = 0; a < numActions; a++) {
+                if (table[base + a] != 0.0) learned = true;
+            }
+            if (!learned) continue;
+            int slot = slotFor(s);
+            for (int a = 0; a < numActions; a++) {
+                row[a] = table[base + a];
+                visits[slot * numActions + a] = (char) Math.min(counts[base + a], Character.MAX_VALUE);
+            }
+            pack(slot);
+        }
+        changed = true; // o próximo save já grava no formato esparso
+    }
+}
\ No newline at end of file
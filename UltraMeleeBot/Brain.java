@@ -0,0 +1,39 @@
+package MeleeLearning;
+
+import java.io.File;
+
+/**
+ * Brain - O que os robôs usam de um cérebro.
+ *
+ * Estados são ints: no QBrain, o estado codificado pelo StateSpace; no
+ * TileBrain, o número devolvido por observe(). QBrain.TERMINAL vale para os
+ * dois como "rodada acabou".
+ */
+public interface Brain {
+
+    int getBestAction(int state);
+
+    int getAction(int state, boolean training);
+
+    void learn(int oldState, int action, double reward, int newState);
+
+    /** Q(λ): mesmo passo, espalhado pelos rastros do agente. */
+    void learn(int oldState, int action, double reward, int newState, EligibilityTraces traces);
+
+    void replay(ReplayBuffer buffer, int batchSize);
+
+    /** Onde contar erro TD e estados novos de cada learn (null desliga). */
+    void setMetrics(LearningMetrics metrics);
+
+    void save(File file);
+
+    /**
+     * Fim da batalha: deixa tudo no arquivo principal, sem diário ao lado,
+     * para ele poder ser copiado sozinho. Quem não tem diário só salva.
+     */
+    default void compact(File file) {
+        save(file);
+    }
+
+    void load(File file);
+}
\ No newline at end of file
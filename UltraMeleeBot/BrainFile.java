@@ -0,0 +1,234 @@
+package MeleeLearning;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BrainFile - Formato binário versionado do cérebro.
+ *
+ * Layout (little-endian):
+ *   int  MAGIC        'QBRN'
+ *   int  version
+ *   int  schemaId     StateSpace.schemaId() de quem salvou
+ *   int  numActions
+ *   int  keyFormat    como as linhas são indexadas (KEY_DENSE = estado codificado)
+ *   int  numStates    linhas gravadas
+ *
+ * KEY_DENSE (QBrain): uma linha por estado, na ordem
+ *   double[numStates * numActions]  tabela Q, linha por linha
+ *   int[numStates * numActions]     visitas de cada (estado, ação)  (versão 2+)
+ *
+ * KEY_SPARSE_Q16 (BoundedQBrain): só as linhas guardadas, cada uma
+ *   int state, float scale, short[numActions] Q quantizado,
+ *   short[numActions] visitas (sem sinal, saturadas)
+ *   Q(s, a) = q * scale / 32767.
+ *
+ * O corpo é lido pelo FileChannel de uma vez e copiado em bloco para o
+ * double[] da tabela, então carregar custa praticamente uma cópia de memória.
+ * Arquivos antigos (serialização Java, começam com 0xACED) são detectados
+ * por isLegacy() para migração; os da versão 1 (sem visitas) são lidos com
+ * as visitas zeradas.
+ */
+public final class BrainFile {
+
+    public static final int MAGIC = 0x5142524E; // "QBRN"
+    public static final int VERSION = 2;
+    public static final int FIRST_VERSION_WITH_VISITS = 2;
+    public static final int KEY_DENSE = 0;
+    public static final int KEY_SPARSE_Q16 = 1;
+    public static final int HEADER_BYTES = 6 * 4;
+
+    private static final int JAVA_SERIAL_MAGIC = 0xACED;
+
+    /** Cabeçalho lido do arquivo. */
+    public static final class Header {
+        public int version;
+        public int schemaId;
+        public int numActions;
+        public int keyFormat;
+        public int numStates;
+
+        public boolean hasVisits() {
+            return version >= FIRST_VERSION_WITH_VISITS;
+        }
+
+        public long payloadBytes() {
+            if (keyFormat == KEY_SPARSE_Q16) return (long) numStates * sparseRowBytes(numActions);
+            return (long) numStates * numActions * (hasVisits() ? 12 : 8);
+        }
+    }
+
+    private BrainFile() {
+    }
+
+    /** true se o arquivo foi gravado com a serialização Java antiga. */
+    public static boolean isLegacy(File file) throws IOException {
+        if (file.length() < 2) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readUnsignedShort() == JAVA_SERIAL_MAGIC;
+        }
+    }
+
+    public static int sparseRowBytes(int numActions) {
+        return 8 + numActions * 4;
+    }
+
+    /**
+     * Buffer do tamanho do arquivo com o cabeçalho já escrito; a posição
+     * fica no começo do corpo.
+     */
+    public static ByteBuffer allocate(int version, int schemaId, int numActions, int keyFormat,
+                                      int numStates, int payloadBytes) {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + payloadBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC)
+                .putInt(version)
+                .putInt(schemaId)
+                .putInt(numActions)
+                .putInt(keyFormat)
+                .putInt(numStates);
+        return buf;
+    }
+
+    /** visits == null: grava no layout da versão 1, só a tabela (quem não conta visitas). */
+    public static void write(File file, int schemaId, int numStates, int numActions, double[] table,
+                             int[] visits) throws IOException {
+        int cells = numStates * numActions;
+        ByteBuffer buf = allocate(visits != null ? VERSION : 1, schemaId, numActions, KEY_DENSE, numStates,
+                cells * (visits != null ? 12 : 8));
+        buf.asDoubleBuffer().put(table, 0, cells);
+        if (visits != null) {
+            buf.position(HEADER_BYTES + cells * 8);
+            buf.asIntBuffer().put(visits, 0, cells);
+        }
+        buf.position(0);
+        writeReplacing(file, buf);
+    }
+
+    /**
+     * Grava o buffer (da posição ao limite) num temporário e troca pelo
+     * arquivo de uma vez: um corte no meio nunca deixa o arquivo pela metade.
+     */
+    public static void writeReplacing(File file, ByteBuffer buf) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lê o arquivo inteiro de uma vez pelo canal; a posição fica no início.
+     * (Não usamos mmap: no Windows um arquivo mapeado não pode ser truncado
+     * nem substituído, e o cérebro é regravado no fim de cada round.)
+     */
+    public static ByteBuffer readAll(FileChannel ch) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining() && ch.read(buf) >= 0) {
+            // continua até encher
+        }
+        buf.flip();
+        return buf;
+    }
+
+    public static Header readHeader(ByteBuffer buf) throws IOException {
+        return readHeader(buf, buf.remaining() - HEADER_BYTES);
+    }
+
+    /**
+     * Só o cabeçalho, lido do começo do canal; o corpo fica para quem vai
+     * lê-lo aos poucos (BrainMerge).
+     */
+    public static Header readHeader(FileChannel ch) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining() && ch.read(buf, buf.position()) >= 0) {
+            // continua até encher
+        }
+        buf.flip();
+        return readHeader(buf, ch.size() - HEADER_BYTES);
+    }
+
+    private static Header readHeader(ByteBuffer buf, long bodyBytes) throws IOException {
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+            throw new IOException("Arquivo de cérebro inválido (MAGIC)");
+        }
+        Header h = new Header();
+        h.version = buf.getInt();
+        h.schemaId = buf.getInt();
+        h.numActions = buf.getInt();
+        h.keyFormat = buf.getInt();
+        h.numStates = buf.getInt();
+        if (h.version < 1 || h.version > VERSION) {
+            throw new IOException("Versão de cérebro não suportada: " + h.version);
+        }
+        if (h.keyFormat != KEY_DENSE && h.keyFormat != KEY_SPARSE_Q16) {
+            throw new IOException("Formato de chave desconhecido: " + h.keyFormat);
+        }
+        if (bodyBytes < h.payloadBytes()) {
+            throw new IOException("Arquivo de cérebro truncado");
+        }
+        return h;
+    }
+
+    /**
+     * Copia o corpo para a tabela. Se o número de ações mudou desde que o
+     * arquivo foi salvo, copia só as colunas em comum (o resto fica zerado).
+     */
+    public static void readTable(ByteBuffer buf, Header h, double[] table, int numStates, int numActions) {
+        int rows = Math.min(h.numStates, numStates);
+        if (h.numActions == numActions) {
+            buf.asDoubleBuffer().get(table, 0, rows * numActions);
+            return;
+        }
+        int cols = Math.min(h.numActions, numActions);
+        int start = buf.position();
+        for (int s = 0; s < rows; s++) {
+            int rowStart = start + s * h.numActions * 8;
+            for (int a = 0; a < cols; a++) {
+                table[s * numActions + a] = buf.getDouble(rowStart + a * 8);
+            }
+        }
+    }
+
+    /**
+     * Copia as visitas (logo depois da tabela) com as mesmas regras do
+     * readTable. Arquivo da versão 1 não tem visitas: o array fica como está.
+     */
+    public static void readVisits(ByteBuffer buf, Header h, int[] visits, int numStates, int numActions) {
+        if (!h.hasVisits()) return;
+        int start = buf.position() + h.numStates * h.numActions * 8;
+        int rows = Math.min(h.numStates, numStates);
+        if (h.numActions == numActions) {
+            ByteBuffer body = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            body.position(start);
+            body.asIntBuffer().get(visits, 0, rows * numActions);
+            return;
+        }
+        int cols = Math.min(h.numActions, numActions);
+        for (int s = 0; s < rows; s++) {
+            int rowStart = start + s * h.numActions * 4;
+            for (int a = 0; a < cols; a++) {
+                visits[s * numActions + a] = buf.getInt(rowStart + a * 4);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * BrainJournal - Diário de linhas alteradas, anexado ao lado do cérebro.
+ *
+ * Em vez de regravar a tabela inteira todo round, o QBrain só anexa as linhas
+ * que mudaram desde o último save. Layout (little-endian):
+ *   int MAGIC 'QJNL', int schemaId, int numActions
+ *   registros: int state, double[numActions], int crc32(state + valores)
+ *
+ * Ao lado de um snapshot da versão 2 do BrainFile os registros levam também
+ * as visitas da linha (int[numActions], antes do CRC). O formato dos
+ * registros acompanha o snapshot: quem chama passa visits == null para a
+ * versão 1.
+ *
+ * Cada registro carrega a linha completa, então reaplicar é idempotente:
+ * o último registro de cada estado vence. Se a gravação foi cortada no meio,
+ * a leitura para no primeiro registro incompleto ou com CRC errado e o
+ * arquivo é truncado ali.
+ */
+final class BrainJournal {
+
+    static final int MAGIC = 0x514A4E4C; // "QJNL"
+    static final int HEADER_BYTES = 3 * 4;
+
+    private BrainJournal() {
+    }
+
+    static File fileFor(File brainFile) {
+        return new File(brainFile.getParentFile(), brainFile.getName() + ".journal");
+    }
+
+    static int recordBytes(int numActions, boolean withVisits) {
+        return 4 + numActions * (withVisits ? 12 : 8) + 4;
+    }
+
+    /** Anexa as linhas indicadas em rows[0..count). Cria o arquivo se precisar. */
+    static void append(File journal, int schemaId, int numActions, double[] table, int[] visits,
+                       int[] rows, int count) throws IOException {
+        boolean fresh = !journal.exists() || journal.length() < HEADER_BYTES;
+        int recBytes = recordBytes(numActions, visits != null);
+        ByteBuffer buf = ByteBuffer.allocate((fresh ? HEADER_BYTES : 0) + count * recBytes)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (fresh) {
+            buf.putInt(MAGIC).putInt(schemaId).putInt(numActions);
+        }
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < count; i++) {
+            int start = buf.position();
+            int state = rows[i];
+            buf.putInt(state);
+            int base = state * numActions;
+            for (int a = 0; a < numActions; a++) {
+                buf.putDouble(table[base + a]);
+            }
+            if (visits != null) {
+                for (int a = 0; a < numActions; a++) {
+                    buf.putInt(visits[base + a]);
+                }
+            }
+            crc.reset();
+            crc.update(buf.array(), start, recBytes - 4);
+            buf.putInt((int) crc.getValue());
+        }
+        buf.flip();
+
+        try (FileChannel ch = FileChannel.open(journal.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            if (fresh) {
+                ch.truncate(0);
+            }
+            ch.position(ch.size());
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        }
+    }
+
+    /** Recebe as linhas válidas do diário, na ordem em que foram gravadas. */
+    interface RowSink {
+        /** q e visits são reaproveitados entre chamadas; visits é null sem visitas. */
+        void row(int state, double[] q, int[] visits);
+    }
+
+    /**
+     * Reaplica o diário sobre a tabela já carregada do snapshot.
+     * Retorna quantos registros válidos havia (ou -1 se o diário não é deste cérebro).
+     */
+    static int replay(File journal, int schemaId, double[] table, int[] visits, int numStates, int numActions)
+            throws IOException {
+        if (!journal.exists() || journal.length() < HEADER_BYTES) return 0;
+        int[] records = {0};
+        RowSink sink = (state, q, v) -> {
+            int base = state * numActions;
+            System.arraycopy(q, 0, table, base, numActions);
+            if (v != null) System.arraycopy(v, 0, visits, base, numActions);
+            records[0]++;
+        };
+
+        try (FileChannel ch = FileChannel.open(journal.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long validEnd = scan(BrainFile.readAll(ch), schemaId, numStates, numActions, visits != null, sink);
+            if (validEnd < 0) return -1;
+            if (validEnd < ch.size()) {
+                // Gravação interrompida: remove a cauda quebrada antes do próximo append
+                ch.truncate(validEnd);
+            }
+        }
+        return records[0];
+    }
+
+    /**
+     * Lê o diário sem alterá-lo (quem não é dono do cérebro, como o
+     * BrainMerge). Retorna quantos registros válidos havia, ou -1.
+     */
+    static int read(File journal, int schemaId, int numStates, int numActions, boolean withVisits,
+                    RowSink sink) throws IOException {
+        if (!journal.exists() || journal.length() < HEADER_BYTES) return 0;
+        int[] records = {0};
+        long validEnd;
+        try (FileChannel ch = FileChannel.open(journal.toPath(), StandardOpenOption.READ)) {
+            validEnd = scan(BrainFile.readAll(ch), schemaId, numStates, numActions, withVisits,
+                    (state, q, v) -> {
+                        sink.row(state, q, v);
+                        records[0]++;
+                    });
+        }
+        return validEnd < 0 ? -1 : records[0];
+    }
+
+    /**
+     * Confere o cabeçalho e entrega os registros até o primeiro incompleto ou
+     * com CRC errado. Retorna a posição logo depois do último válido, ou -1
+     * se o diário não é deste cérebro.
+     */
+    private static long scan(ByteBuffer buf, int schemaId, int numStates, int numActions, boolean withVisits,
+                             RowSink sink) {
+        if (buf.getInt() != MAGIC || buf.getInt() != schemaId || buf.getInt() != numActions) {
+            return -1;
+        }
+        int recBytes = recordBytes(numActions, withVisits);
+        byte[] rec = new byte[recBytes - 4];
+        double[] q = new double[numActions];
+        int[] v = withVisits ? new int[numActions] : null;
+        CRC32 crc = new CRC32();
+        long validEnd = buf.position();
+        while (buf.remaining() >= recBytes) {
+            int start = buf.position();
+            buf.get(rec);
+            int stored = buf.getInt();
+            crc.reset();
+            crc.update(rec, 0, rec.length);
+            int state = buf.getInt(start);
+            if ((int) crc.getValue() != stored || state < 0 || state >= numStates) {
+                break; // registro corrompido: tudo dali em diante é descartado
+            }
+            for (int a = 0; a < numActions; a++) {
+                q[a] = buf.getDouble(start + 4 + a * 8);
+            }
+            if (v != null) {
+                int visitsStart = start + 4 + numActions * 8;
+                for (int a = 0; a < numActions; a++) {
+                    v[a] = buf.getInt(visitsStart + a * 4);
+                }
+            }
+            sink.row(state, q, v);
+            validEnd = buf.position();
+        }
+        return validEnd;
+    }
+}
\ No newline at end of file
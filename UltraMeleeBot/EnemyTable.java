@@ -0,0 +1,116 @@
+package MeleeLearning;
+
+/**
+ * EnemyTable - Inimigos do UltraMeleeBot em slots fixos (struct of arrays).
+ *
+ * Cada nome ganha um índice na primeira vez que é escaneado e fica com ele a
+ * rodada inteira; achar o slot é uma busca linear nos nomes (poucos robôs,
+ * e a String do evento costuma ser a mesma instância, então equals sai no
+ * ==). Nada de HashMap nem objeto por inimigo.
+ *
+ * snapshot() calcula uma vez por turno, para os inimigos recentes, distância
+ * e ângulo absoluto a partir da nossa posição, e o mais perto deles; estado,
+ * movimento e mira leem os mesmos arrays no resto do turno.
+ */
+final class EnemyTable {
+
+    static final int MAX_ENEMIES = 32;
+
+    // Idades máximas do último scan (ticks)
+    static final int TARGET_AGE = 40; // conta para o estado e para escolher alvo
+    static final int FORCE_AGE = 50;  // ainda pesa no RiskGrid (expire)
+
+    // Dados de scan, por slot
+    final String[] name = new String[MAX_ENEMIES];
+    final double[] x = new double[MAX_ENEMIES];
+    final double[] y = new double[MAX_ENEMIES];
+    final double[] energy = new double[MAX_ENEMIES];
+    final double[] heading = new double[MAX_ENEMIES];
+    final double[] velocity = new double[MAX_ENEMIES];
+    final double[] turnRate = new double[MAX_ENEMIES]; // radianos por turno, medido entre scans
+    final long[] lastSeen = new long[MAX_ENEMIES];
+    final boolean[] alive = new boolean[MAX_ENEMIES];
+    int slots = 0;
+    private final boolean[] scanned = new boolean[MAX_ENEMIES];
+    // O último scan() foi o primeiro do slot (slotOf dos eventos de bala
+    // também cria slot, mas sem scan): resolva aí o que é por nome
+    boolean firstScan = false;
+
+    // Snapshot do turno, por slot (vale só para os vivos com idade <= TARGET_AGE)
+    final double[] dist = new double[MAX_ENEMIES];
+    final double[] bearing = new double[MAX_ENEMIES]; // absoluto, convenção do Robocode
+    int recentCount = 0;
+    int nearest = -1; // slot recente mais perto, ou -1
+    private long snapshotTime = Long.MIN_VALUE;
+
+    /** Slot do nome, criando um se for novo; -1 se a tabela estiver cheia. */
+    int slotOf(String enemyName) {
+        for (int i = 0; i < slots; i++) {
+            String n = name[i];
+            if (n == enemyName || n.equals(enemyName)) return i;
+        }
+        if (slots == MAX_ENEMIES) return -1;
+        name[slots] = enemyName;
+        return slots++;
+    }
+
+    /** Grava um scan; devolve o slot (-1 se a tabela estiver cheia). */
+    int scan(String enemyName, double ex, double ey, double eEnergy, double eHeading,
+             double eVelocity, long time) {
+        int i = slotOf(enemyName);
+        firstScan = false;
+        if (i < 0) return -1;
+        firstScan = !scanned[i];
+        scanned[i] = true;
+        if (alive[i]) {
+            turnRate[i] = AimSolver.turnRate(turnRate[i], heading[i], eHeading, time - lastSeen[i]);
+        } else {
+            turnRate[i] = 0;
+            alive[i] = true;
+        }
+        x[i] = ex;
+        y[i] = ey;
+        energy[i] = eEnergy;
+        heading[i] = eHeading;
+        velocity[i] = eVelocity;
+        lastSeen[i] = time;
+        snapshotTime = Long.MIN_VALUE; // dado novo: refaz o snapshot
+        return i;
+    }
+
+    /** Marca como morto; devolve o slot (-1 se nunca foi visto). */
+    int kill(String enemyName) {
+        for (int i = 0; i < slots; i++) {
+            if (name[i].equals(enemyName)) {
+                alive[i] = false;
+                snapshotTime = Long.MIN_VALUE;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean isCurrent(long time) {
+        return snapshotTime == time;
+    }
+
+    void snapshot(long time, double myX, double myY) {
+        recentCount = 0;
+        nearest = -1;
+        double nearestDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < slots; i++) {
+            if (!alive[i] || time - lastSeen[i] > TARGET_AGE) continue;
+            double dx = x[i] - myX;
+            double dy = y[i] - myY;
+            double d = Math.sqrt(dx * dx + dy * dy);
+            dist[i] = d;
+            bearing[i] = Math.atan2(dx, dy);
+            recentCount++;
+            if (d < nearestDist) {
+                nearestDist = d;
+                nearest = i;
+            }
+        }
+        snapshotTime = time;
+    }
+}
\ No newline at end of file
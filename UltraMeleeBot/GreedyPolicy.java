@@ -0,0 +1,36 @@
+package MeleeLearning;
+
+/**
+ * GreedyPolicy - A política gulosa de um cérebro congelado.
+ *
+ * Para quem só joga (MasterBot): o argmax de cada linha da tabela é feito
+ * uma vez, no carregamento, e a decisão do turno vira uma leitura de um
+ * byte[] indexado pelo estado codificado. Estado que o treino nunca viu
+ * (nenhuma visita e Q todo zero) recebe a ação padrão de quem compilou,
+ * em vez da ação 0 que o argmax de zeros daria.
+ *
+ * Só leitura: o cérebro pode continuar aprendendo, mas a política não muda.
+ */
+public final class GreedyPolicy {
+
+    private final byte[] actions;
+    private final int unseen;
+
+    GreedyPolicy(byte[] actions, int unseen) {
+        this.actions = actions;
+        this.unseen = unseen;
+    }
+
+    public int getAction(int state) {
+        return actions[state];
+    }
+
+    public int size() {
+        return actions.length;
+    }
+
+    /** Estados que ficaram com a ação padrão. */
+    public int unseen() {
+        return unseen;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package MeleeLearning;
+
+import robocode.Rules;
+import robocode.util.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GuessFactorGun - Mira por guess factor com ondas virtuais.
+ *
+ * A cada scan de um inimigo sai uma onda virtual da nossa posição. Quando a
+ * onda alcança o inimigo (num scan logo depois), anota em que fração do ângulo
+ * máximo de fuga ele estava (guess factor, de -1 a 1, no sentido em que ele
+ * andava de lado) e soma 1 no balde correspondente. Para mirar, pega o balde
+ * mais visitado do segmento atual do alvo.
+ *
+ * Cada onda também guarda para onde a mira preditiva teria atirado; ao
+ * quebrar, conta acerto virtual para cada mira. aim() só responde para o
+ * oponente em que o guess factor está acertando mais (contra quem anda em
+ * linha reta ou em círculo, a preditiva é exata e continua mandando).
+ *
+ * Segmentos: distância x velocidade lateral x perto/longe da parede. Os
+ * histogramas ficam num único int[] plano (oponente, segmento, balde) e as
+ * ondas em arrays paralelos com remoção por troca; nada é alocado por scan
+ * nem por tiro. A instância fica em static no robô (sobrevive às rodadas) e
+ * vai para o disco no fim da batalha, um byte por balde.
+ *
+ * O que vem do disco entra como um palpite inicial de peso limitado: cada
+ * segmento carregado vale PRIOR_VISITS ondas, por mais longa que tenha sido
+ * a história. Assim as ondas da batalha atual logo mandam no histograma, e
+ * um oponente que mudou de movimento é reaprendido em vez de ficar preso no
+ * que ele fazia antes.
+ *
+ * Layout do arquivo (little-endian):
+ *   int MAGIC 'QGFG', int version, int bins, int segments, int opponents
+ *   por oponente: short tamanho do nome, nome UTF-8, byte[segments * bins]
+ */
+public final class GuessFactorGun {
+
+    public static final int MAGIC = 0x51474647; // "QGFG"
+    public static final int VERSION = 1;
+
+    static final int BINS = 31;
+    private static final int MIDDLE = (BINS - 1) / 2;
+    private static final int DIST_SEGS = 5;  // < 150, < 300, < 450, < 600, resto
+    private static final int LAT_SEGS = 4;   // |vel. lateral| < 2, < 4, < 6, resto
+    private static final int WALL_SEGS = 2;  // inimigo a < 100 px da parede ou não
+    static final int SEGMENTS = DIST_SEGS * LAT_SEGS * WALL_SEGS;
+    private static final int STRIDE = SEGMENTS * BINS;
+
+    public static final int MAX_OPPONENTS = 64;
+    private static final int MAX_WAVES = 512;
+    private static final int MIN_VISITS = 5; // menos que isso no segmento: sem palpite
+    private static final int WAVE_WEIGHT = 16;  // quanto uma onda soma no balde
+    private static final int PRIOR_VISITS = 20; // ondas que um segmento carregado vale
+    private static final int LATE_TICKS = 2;  // onda que passou há mais que isso: descarta
+    private static final double HALF_BOT = 18; // acerto virtual: dentro do meio robô
+
+    // Estatística por oponente (toda a batalha)
+    private final String[] names = new String[MAX_OPPONENTS];
+    private int opponents = 0;
+    private final int[] stats = new int[MAX_OPPONENTS * STRIDE];
+    private final int[] segmentVisits = new int[MAX_OPPONENTS * SEGMENTS];
+    private final double[] lastDirection = new double[MAX_OPPONENTS];
+    private final int[] gfHits = new int[MAX_OPPONENTS];     // acertos virtuais, só da batalha
+    private final int[] solverHits = new int[MAX_OPPONENTS];
+
+    // Ondas em voo (só a rodada atual)
+    private final int[] waveOpponent = new int[MAX_WAVES];
+    private final int[] waveSegment = new int[MAX_WAVES];
+    private final long[] waveTime = new long[MAX_WAVES];
+    private final double[] waveX = new double[MAX_WAVES];
+    private final double[] waveY = new double[MAX_WAVES];
+    private final double[] waveSpeed = new double[MAX_WAVES];
+    private final double[] waveBearing = new double[MAX_WAVES];
+    private final double[] waveDirection = new double[MAX_WAVES];
+    private final double[] waveEscape = new double[MAX_WAVES];
+    private final double[] waveGfAngle = new double[MAX_WAVES];     // NaN = sem palpite
+    private final double[] waveSolverAngle = new double[MAX_WAVES];
+    private int waveCount = 0;
+
+    /** Índice do oponente (criado na primeira vez); -1 se não couber mais. */
+    public int opponent(String name) {
+        for (int i = 0; i < opponents; i++) {
+            String n = names[i];
+            if (n == name || n.equals(name)) return i;
+        }
+        if (opponents == MAX_OPPONENTS) return -1;
+        names[opponents] = name;
+        lastDirection[opponents] = 1;
+        return opponents++;
+    }
+
+    /** Início de rodada: ondas da rodada anterior não valem mais. */
+    public void newRound() {
+        waveCount = 0;
+    }
+
+    /** Inimigo morreu: as ondas dele nunca vão quebrar. */
+    public void dropWaves(int opp) {
+        for (int w = waveCount - 1; w >= 0; w--) {
+            if (waveOpponent[w] == opp) removeWave(w);
+        }
+    }
+
+    /**
+     * Scan do oponente opp: quebra as ondas dele que já o alcançaram e
+     * solta uma nova (bala virtual de bulletPower). solverAngle é para onde
+     * a mira preditiva atiraria agora, com a mesma potência.
+     */
+    public void onScan(int opp, long time, double myX, double myY, double enemyX, double enemyY,
+                       double enemyHeading, double enemyVelocity, double bulletPower,
+                       double solverAngle, double fieldWidth, double fieldHeight) {
+        if (opp < 0) return;
+
+        for (int w = waveCount - 1; w >= 0; w--) {
+            if (waveOpponent[w] != opp) continue;
+            double dx = enemyX - waveX[w];
+            double dy = enemyY - waveY[w];
+            double traveled = (time - waveTime[w]) * waveSpeed[w];
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (traveled < distance) continue;
+            // Em melee o radar volta tarde; posição muito depois da onda só suja o histograma
+            if (traveled - distance > LATE_TICKS * waveSpeed[w]) {
+                removeWave(w);
+                continue;
+            }
+
+            double actual = Math.atan2(dx, dy);
+            double tolerance = Math.atan(HALF_BOT / distance);
+            if (Math.abs(Utils.normalRelativeAngle(waveGfAngle[w] - actual)) < tolerance) gfHits[opp]++;
+            if (Math.abs(Utils.normalRelativeAngle(waveSolverAngle[w] - actual)) < tolerance) solverHits[opp]++;
+
+            double offset = Utils.normalRelativeAngle(actual - waveBearing[w]);
+            double gf = offset / waveEscape[w] * waveDirection[w];
+            int bin = (int) Math.round((Math.max(-1, Math.min(1, gf)) + 1) * MIDDLE);
+            int seg = waveSegment[w];
+            stats[opp * STRIDE + seg * BINS + bin] += WAVE_WEIGHT;
+            segmentVisits[opp * SEGMENTS + seg]++;
+            removeWave(w);
+        }
+
+        if (waveCount == MAX_WAVES) return;
+        double bearing = Math.atan2(enemyX - myX, enemyY - myY);
+        double lateral = enemyVelocity * Math.sin(enemyHeading - bearing);
+        if (lateral != 0) lastDirection[opp] = lateral > 0 ? 1 : -1;
+        double speed = Rules.getBulletSpeed(bulletPower);
+        double escape = Math.asin(Rules.MAX_VELOCITY / speed);
+        int seg = segment(Math.hypot(enemyX - myX, enemyY - myY), lateral,
+                enemyX, enemyY, fieldWidth, fieldHeight);
+
+        int w = waveCount++;
+        waveOpponent[w] = opp;
+        waveSegment[w] = seg;
+        waveTime[w] = time;
+        waveX[w] = myX;
+        waveY[w] = myY;
+        waveSpeed[w] = speed;
+        waveBearing[w] = bearing;
+        waveDirection[w] = lastDirection[opp];
+        waveEscape[w] = escape;
+        waveGfAngle[w] = bestAngle(opp, seg, bearing, lastDirection[opp], escape);
+        waveSolverAngle[w] = solverAngle;
+    }
+
+    /**
+     * Ângulo absoluto de tiro pelo guess factor mais visitado, ou NaN se o
+     * segmento atual do alvo ainda não tem dados ou se a mira preditiva vem
+     * acertando mais esse oponente (aí use a preditiva).
+     */
+    public double aim(int opp, double myX, double myY, double enemyX, double enemyY,
+                      double enemyHeading, double enemyVelocity, double bulletPower,
+                      double fieldWidth, double fieldHeight) {
+        if (opp < 0 || gfHits[opp] <= solverHits[opp]) return Double.NaN;
+        double bearing = Math.atan2(enemyX - myX, enemyY - myY);
+        double lateral = enemyVelocity * Math.sin(enemyHeading - bearing);
+        int seg = segment(Math.hypot(enemyX - myX, enemyY - myY), lateral,
+                enemyX, enemyY, fieldWidth, fieldHeight);
+        double direction = lateral != 0 ? (lateral > 0 ? 1 : -1) : lastDirection[opp];
+        double escape = Math.asin(Rules.MAX_VELOCITY / Rules.getBulletSpeed(bulletPower));
+        return bestAngle(opp, seg, bearing, direction, escape);
+    }
+
+    private double bestAngle(int opp, int seg, double bearing, double direction, double escape) {
+        if (segmentVisits[opp * SEGMENTS + seg] < MIN_VISITS) return Double.NaN;
+        int base = opp * STRIDE + seg * BINS;
+        int best = MIDDLE;
+        for (int b = 0; b < BINS; b++) {
+            if (stats[base + b] > stats[base + best]) best = b;
+        }
+        double gf = (double) (best - MIDDLE) / MIDDLE;
+        return bearing + direction * gf * escape;
+    }
+
+    private static int segment(double distance, double lateral, double x, double y,
+                               double fieldWidth, double fieldHeight) {
+        int d = Math.min(DIST_SEGS - 1, (int) (distance / 150));
+        int l = Math.min(LAT_SEGS - 1, (int) (Math.abs(lateral) / 2));
+        double wall = Math.min(Math.min(x, fieldWidth - x), Math.min(y, fieldHeight - y));
+        int nearWall = wall < 100 ? 0 : 1;
+        return (d * LAT_SEGS + l) * WALL_SEGS + nearWall;
+    }
+
+    private void removeWave(int w) {
+        int last = --waveCount;
+        if (w == last) return;
+        waveOpponent[w] = waveOpponent[last];
+        waveSegment[w] = waveSegment[last];
+        waveTime[w] = waveTime[last];
+        waveX[w] = waveX[last];
+        waveY[w] = waveY[last];
+        waveSpeed[w] = waveSpeed[last];
+        waveBearing[w] = waveBearing[last];
+        waveDirection[w] = waveDirection[last];
+        waveEscape[w] = waveEscape[last];
+        waveGfAngle[w] = waveGfAngle[last];
+        waveSolverAngle[w] = waveSolverAngle[last];
+    }
+
+    // ===== Persistência =====
+
+    /**
+     * Grava um byte por balde: cada segmento é escalado para 0..255 pelo
+     * próprio máximo (a forma do histograma é o que importa para mirar).
+     */
+    public void save(File file) {
+        try {
+            int size = 20;
+            byte[][] encoded = new byte[opponents][];
+            for (int o = 0; o < opponents; o++) {
+                encoded[o] = names[o].getBytes(StandardCharsets.UTF_8);
+                size += 2 + encoded[o].length + STRIDE;
+            }
+            ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(BINS).putInt(SEGMENTS).putInt(opponents);
+            for (int o = 0; o < opponents; o++) {
+                buf.putShort((short) encoded[o].length).put(encoded[o]);
+                for (int s = 0; s < SEGMENTS; s++) {
+                    int base = o * STRIDE + s * BINS;
+                    int max = 0;
+                    for (int b = 0; b < BINS; b++) max = Math.max(max, stats[base + b]);
+                    for (int b = 0; b < BINS; b++) {
+                        int v = max == 0 ? 0 : (int) Math.ceil(255.0 * stats[base + b] / max);
+                        buf.put((byte) v);
+                    }
+                }
+            }
+            buf.flip();
+            BrainFile.writeReplacing(file, buf);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Carrega por cima do que já existe; arquivo com outra segmentação é ignorado. */
+    public void load(File file) {
+        if (!file.exists() || file.length() == 0) return;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = BrainFile.readAll(ch);
+            if (buf.remaining() < 20 || buf.getInt() != MAGIC || buf.getInt() != VERSION
+                    || buf.getInt() != BINS || buf.getInt() != SEGMENTS) {
+                System.out.println("AVISO: estatística de mira em outro formato, ignorada.");
+                return;
+            }
+            int count = buf.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buf.getShort() & 0xFFFF];
+                buf.get(name);
+                int o = opponent(new String(name, StandardCharsets.UTF_8));
+                if (o < 0) break;
+                for (int s = 0; s < SEGMENTS; s++) {
+                    int base = o * STRIDE + s * BINS;
+                    int sum = 0;
+                    for (int b = 0; b < BINS; b++) {
+                        int v = buf.get() & 0xFF;
+                        stats[base + b] = v;
+                        sum += v;
+                    }
+                    if (sum == 0) continue;
+                    // A forma do disco, com o peso de PRIOR_VISITS ondas no total
+                    for (int b = 0; b < BINS; b++) {
+                        stats[base + b] = (int) Math.round((double) stats[base + b] * PRIOR_VISITS * WAVE_WEIGHT / sum);
+                    }
+                    segmentVisits[o * SEGMENTS + s] = PRIOR_VISITS;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
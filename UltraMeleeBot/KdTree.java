@@ -0,0 +1,254 @@
+package MeleeLearning;
+
+/**
+ * KdTree - Memória de situações com busca dos k vizinhos mais próximos.
+ *
+ * Os pontos (dims coordenadas e um valor) ficam num anel de capacidade fixa:
+ * o ponto novo sobrescreve o mais velho, então a memória nunca passa de
+ * capacity pontos, por mais longa que seja a batalha.
+ *
+ * A árvore é feita só de arrays primitivos. Cada nó guarda o número de série
+ * do ponto e o valor de corte na dimensão do nível (profundidade % dims).
+ * O nó continua na árvore mesmo depois que o anel sobrescreveu o ponto dele:
+ * ainda serve para descer, só não entra no resultado. A inserção desce da
+ * raiz e pendura uma folha; quando os nós acabam (2 x capacity), a árvore é
+ * reconstruída balanceada só com os pontos vivos (mediana por quickselect).
+ * A reconstrução sai uma vez a cada capacity inserções, O(n log n) amortizado
+ * em O(log n) por ponto, e também desfaz o desbalanço de dados que chegam
+ * em ordem.
+ *
+ * nearest() preenche os arrays de resultado da própria instância com um
+ * max-heap de k; a descida usa uma pilha explícita com a distância ao plano
+ * de corte para podar. Distância euclidiana ao quadrado com peso por
+ * dimensão. Nada é alocado depois do construtor.
+ */
+final class KdTree {
+
+    private final int dims;
+    private final int capacity;
+
+    // Anel de pontos: série s fica no slot s % capacity
+    private final double[] points;
+    private final double[] values;
+    private int added = 0; // séries já usadas
+
+    // Nós
+    private final int maxNodes;
+    private final int[] nodeSerial;
+    private final int[] nodeSlot; // serial % capacity, para a busca não dividir
+    private final double[] nodeSplit;
+    private final int[] left;
+    private final int[] right;
+    private int nodeCount = 0;
+    private int root = -1;
+
+    // Pilha da busca e rascunho da reconstrução
+    private final int[] stackNode;
+    private final int[] stackDim;
+    private final double[] stackBound;
+    private final int[] scratch;
+
+    // Resultado do último nearest(): max-heap por distância
+    final double[] resultDistance;
+    final double[] resultValue;
+    int resultCount = 0;
+
+    KdTree(int dims, int capacity, int maxK) {
+        this.dims = dims;
+        this.capacity = capacity;
+        this.points = new double[capacity * dims];
+        this.values = new double[capacity];
+        this.maxNodes = 2 * capacity;
+        this.nodeSerial = new int[maxNodes];
+        this.nodeSlot = new int[maxNodes];
+        this.nodeSplit = new double[maxNodes];
+        this.left = new int[maxNodes];
+        this.right = new int[maxNodes];
+        this.stackNode = new int[maxNodes + 1];
+        this.stackDim = new int[maxNodes + 1];
+        this.stackBound = new double[maxNodes + 1];
+        this.scratch = new int[capacity];
+        this.resultDistance = new double[maxK];
+        this.resultValue = new double[maxK];
+    }
+
+    /** Pontos vivos (no máximo capacity). */
+    int size() {
+        return Math.min(added, capacity);
+    }
+
+    /** Guarda o ponto (copiado de point, a partir de offset) e o valor dele. */
+    void add(double[] point, int offset, double value) {
+        if (nodeCount == maxNodes) rebuild();
+        int serial = added++;
+        int slot = serial % capacity;
+        System.arraycopy(point, offset, points, slot * dims, dims);
+        values[slot] = value;
+        insert(serial);
+    }
+
+    private double coordinate(int serial, int dim) {
+        return points[(serial % capacity) * dims + dim];
+    }
+
+    private void insert(int serial) {
+        int n = newNode(serial, 0);
+        if (root < 0) {
+            root = n;
+            return;
+        }
+        int node = root;
+        int depth = 0;
+        while (true) {
+            boolean goLeft = coordinate(serial, depth % dims) < nodeSplit[node];
+            int child = goLeft ? left[node] : right[node];
+            depth++;
+            if (child < 0) {
+                nodeSplit[n] = coordinate(serial, depth % dims);
+                if (goLeft) left[node] = n; else right[node] = n;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private int newNode(int serial, int dim) {
+        int n = nodeCount++;
+        nodeSerial[n] = serial;
+        nodeSlot[n] = serial % capacity;
+        nodeSplit[n] = coordinate(serial, dim);
+        left[n] = -1;
+        right[n] = -1;
+        return n;
+    }
+
+    /** Refaz a árvore balanceada só com os pontos que o anel ainda guarda. */
+    private void rebuild() {
+        int live = size();
+        for (int i = 0; i < live; i++) scratch[i] = added - live + i;
+        nodeCount = 0;
+        root = build(0, live, 0);
+    }
+
+    private int build(int from, int to, int depth) {
+        if (from >= to) return -1;
+        int dim = depth % dims;
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, dim);
+        int n = newNode(scratch[mid], dim);
+        // Iguais à mediana podem ter ficado à esquerda; a descida manda iguais
+        // para a direita, então isso só custa poda, nunca acerto
+        left[n] = build(from, mid, depth + 1);
+        right[n] = build(mid + 1, to, depth + 1);
+        return n;
+    }
+
+    /** Quickselect em scratch[lo..hi]: o k-ésimo na dimensão dim vai para a posição k. */
+    private void select(int lo, int hi, int k, int dim) {
+        while (lo < hi) {
+            double pivot = coordinate(scratch[(lo + hi) >>> 1], dim);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (coordinate(scratch[i], dim) < pivot) i++;
+                while (coordinate(scratch[j], dim) > pivot) j--;
+                if (i <= j) {
+                    int t = scratch[i]; scratch[i] = scratch[j]; scratch[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    /**
+     * Os até k pontos vivos mais perto de query (a partir de offset), com
+     * peso weights[d] em cada dimensão. Resultado em resultDistance/
+     * resultValue[0..resultCount), sem ordem. Devolve resultCount.
+     */
+    int nearest(double[] query, int offset, double[] weights, int k) {
+        resultCount = 0;
+        if (root < 0) return 0;
+        int top = 0;
+        stackNode[0] = root;
+        stackDim[0] = 0;
+        stackBound[0] = 0;
+        int oldest = added - capacity;
+        while (top >= 0) {
+            int node = stackNode[top];
+            int dim = stackDim[top];
+            double bound = stackBound[top];
+            top--;
+            if (resultCount == k && bound >= resultDistance[0]) continue;
+
+            if (nodeSerial[node] >= oldest) {
+                int slot = nodeSlot[node];
+                double dist = distance(slot, query, offset, weights);
+                if (resultCount < k || dist < resultDistance[0]) offer(slot, dist, k);
+            }
+
+            double diff = query[offset + dim] - nodeSplit[node];
+            int near = diff < 0 ? left[node] : right[node];
+            int far = diff < 0 ? right[node] : left[node];
+            // Longe primeiro na pilha: o perto sai antes e aperta a poda. O
+            // limite de um filho nunca é menor que o do pai
+            int next = dim + 1 == dims ? 0 : dim + 1;
+            if (far >= 0) {
+                top++;
+                stackNode[top] = far;
+                stackDim[top] = next;
+                stackBound[top] = Math.max(bound, weights[dim] * diff * diff);
+            }
+            if (near >= 0) {
+                top++;
+                stackNode[top] = near;
+                stackDim[top] = next;
+                stackBound[top] = bound;
+            }
+        }
+        return resultCount;
+    }
+
+    private double distance(int slot, double[] query, int offset, double[] weights) {
+        int base = slot * dims;
+        double sum = 0;
+        for (int d = 0; d < dims; d++) {
+            double diff = query[offset + d] - points[base + d];
+            sum += weights[d] * diff * diff;
+        }
+        return sum;
+    }
+
+    /** Entra no max-heap de k (raiz = mais longe); quem chama já viu que cabe. */
+    private void offer(int slot, double dist, int k) {
+        int i;
+        if (resultCount < k) {
+            i = resultCount++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (resultDistance[parent] >= dist) break;
+                moveResult(parent, i);
+                i = parent;
+            }
+        } else {
+            i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= resultCount) break;
+                if (child + 1 < resultCount && resultDistance[child + 1] > resultDistance[child]) child++;
+                if (resultDistance[child] <= dist) break;
+                moveResult(child, i);
+                i = child;
+            }
+        }
+        resultDistance[i] = dist;
+        resultValue[i] = values[slot];
+    }
+
+    private void moveResult(int from, int to) {
+        resultDistance[to] = resultDistance[from];
+        resultValue[to] = resultValue[from];
+    }
+}
\ No newline at end of file
@@ -1,117 +1,486 @@
 package MeleeLearning;
 
 import java.io.*;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.BiFunction;
 
 /**
- * QBrain - Implementação simples de Q-Learning.
- * 
- * Mantém uma tabela: estado(String) -> vetor de Q-values (double[numActions]).
+ * QBrain - Núcleo de Aprendizado por Reforço (Q-Learning).
+ *
+ * A tabela Q é um único double[] plano: linha = estado codificado pelo
+ * StateSpace, coluna = ação. Posição = state * numActions + action.
+ * Nada de String, HashMap ou boxing no caminho quente.
+ *
+ * Ao lado da tabela, visits (mesmo layout) conta quantas vezes cada
+ * (estado, ação) foi aprendido. As visitas dão o passo de aprendizado de
+ * cada posição (média das amostras no começo, ALPHA depois) e a exploração
+ * de cada estado (muita no estado novo, pouca no estado batido, sempre pela
+ * ação menos tentada). Vão junto com a tabela no arquivo.
+ *
+ * Persistência no formato binário do BrainFile; arquivos antigos em
+ * serialização Java ainda são lidos e convertidos no próximo save.
  */
-public class QBrain {
+public class QBrain implements Brain {
 
-    private final HashMap<String, double[]> qTable;
-    private final int numActions;
+    // Use no lugar do próximo estado quando a rodada terminou (sem valor futuro)
+    public static final int TERMINAL = -1;
+
+    final StateSpace space;
+    final int numStates;
+    final int numActions;
+    final double[] qTable;
+    final int[] visits;
     private final Random random;
 
-    // Hiperparâmetros
-    private static final double ALPHA   = 0.1;  // taxa de aprendizado
-    private static final double GAMMA   = 0.9;  // desconto futuro
-    private static final double EPSILON = 0.2;  // taxa de exploração
+    // Persistência incremental: linhas alteradas desde o último save
+    private final boolean[] dirty;
+    private final int[] dirtyRows;
+    private int dirtyCount = 0;
+    private int journalRecords = 0;
+    private File persistedFile = null; // snapshot que a memória espelha (null = nenhum)
 
-    public QBrain(int numActions) {
-        this.numActions = numActions;
-        this.qTable = new HashMap<>();
-        this.random = new Random();
+    // Métricas da rodada (null = desligadas); o ConcurrentQBrain não usa
+    private LearningMetrics metrics = null;
+
+    // Hiperparâmetros (padrões; o tuning.properties troca em configure(),
+    // antes de criar o cérebro)
+    // ALPHA: Taxa de aprendizado mínima. O passo começa em 1/visitas (média
+    // das amostras) e desce até aqui; 0.1 é seguro para não oscilar demais.
+    static double ALPHA = 0.1;
+    // GAMMA: Fator de desconto. 0.9 valoriza recompensas futuras (sobrevivência a longo prazo).
+    static double GAMMA = 0.9;
+    // EPSILON: Exploração de um estado novo: 20% das vezes testa outra ação.
+    // Cai com as visitas do estado (metade em EXPLORE_VISITS) até MIN_EPSILON.
+    static double EPSILON = 0.2;
+    static double MIN_EPSILON = 0.02;
+    static int EXPLORE_VISITS = 100;
+    // LAMBDA: Quanto do erro volta pelos passos anteriores no Q(λ). 0 = Q-Learning de um passo.
+    static double LAMBDA = 0.8;
+
+    // Quem os robôs chamam para criar o cérebro. O treino paralelo
+    // (MeleeSim.ParallelTrainer) troca por uma que devolve sempre o mesmo
+    // cérebro compartilhado entre as threads.
+    private static volatile BiFunction<StateSpace, Integer, QBrain> factory = QBrain::new;
+
+    public static QBrain create(StateSpace space, int numActions) {
+        return factory.apply(space, numActions);
+    }
+
+    /** Hiperparâmetros da execução (valem para todos os cérebros criados depois). */
+    public static void configure(Tuning tuning) {
+        ALPHA = tuning.get("alpha", ALPHA);
+        GAMMA = tuning.get("gamma", GAMMA);
+        EPSILON = tuning.get("epsilon", EPSILON);
+        MIN_EPSILON = tuning.get("min_epsilon", MIN_EPSILON);
+        EXPLORE_VISITS = tuning.get("explore_visits", EXPLORE_VISITS);
+        LAMBDA = tuning.get("lambda", LAMBDA);
     }
 
-    // Garante que o estado existe na tabela
-    private double[] getQRow(String state) {
-        return qTable.computeIfAbsent(state, s -> new double[numActions]);
+    public static void setFactory(BiFunction<StateSpace, Integer, QBrain> newFactory) {
+        factory = newFactory;
     }
 
-    public int getBestAction(String state) {
-        double[] row = getQRow(state);
+    public QBrain(StateSpace space, int numActions) {
+        this.space = space;
+        this.numStates = space.size();
+        this.numActions = numActions;
+        this.qTable = new double[numStates * numActions];
+        this.visits = new int[numStates * numActions];
+        this.random = new Random();
+        this.dirty = new boolean[numStates];
+        this.dirtyRows = new int[numStates];
+    }
+
+    public int getBestAction(int state) {
+        int base = state * numActions;
         int best = 0;
-        double bestVal = row[0];
+        double bestVal = qTable[base];
         for (int i = 1; i < numActions; i++) {
-            if (row[i] > bestVal) {
-                bestVal = row[i];
+            if (qTable[base + i] > bestVal) {
+                bestVal = qTable[base + i];
                 best = i;
             }
         }
         return best;
     }
 
-    public int getAction(String state, boolean training) {
-        if (training && random.nextDouble() < EPSILON) {
+    public int getAction(int state, boolean training) {
+        if (training && random.nextDouble() < epsilon(state)) {
             // Exploração
-            return random.nextInt(numActions);
+            return leastTried(state, random);
         }
         // Exploitation
         return getBestAction(state);
     }
 
+    /** Chance de explorar no estado: EPSILON no estado novo, caindo com as visitas. */
+    double epsilon(int state) {
+        int base = state * numActions;
+        long n = 0;
+        for (int a = 0; a < numActions; a++) n += visits[base + a];
+        return Math.max(MIN_EPSILON, EPSILON * EXPLORE_VISITS / (EXPLORE_VISITS + n));
+    }
+
+    /** Ação com menos visitas no estado (empate: sorteia entre as empatadas). */
+    int leastTried(int state, Random rnd) {
+        int base = state * numActions;
+        int best = 0;
+        int ties = 0;
+        for (int a = 0; a < numActions; a++) {
+            int v = visits[base + a];
+            if (a == 0 || v < visits[base + best]) {
+                best = a;
+                ties = 1;
+            } else if (v == visits[base + best] && rnd.nextInt(++ties) == 0) {
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    /** Passo de aprendizado da posição: 1/visitas (média) até cair em ALPHA. */
+    double alpha(int idx) {
+        int n = visits[idx];
+        return n <= 1 ? 1.0 : Math.max(ALPHA, 1.0 / n);
+    }
+
     /**
      * Atualização Q-Learning (equação de Bellman).
      *
      * oldState: estado anterior
      * action  : ação tomada nesse estado
      * reward  : recompensa acumulada
-     * newState: próximo estado (ou null se for estado terminal)
+     * newState: próximo estado (ou TERMINAL se a rodada acabou)
+     */
+    public void learn(int oldState, int action, double reward, int newState) {
+        if (oldState < 0) return;
+        boolean fresh = metrics != null && unvisited(oldState);
+        countVisit(oldState * numActions + action);
+        double error = update(oldState, action, reward, newState);
+        if (metrics != null) metrics.learned(error, fresh);
+    }
+
+    // Bellman de um passo, sem contar visita (o replay revisita transições velhas).
+    // Devolve o erro TD antes da atualização.
+    private double update(int oldState, int action, double reward, int newState) {
+        double maxFutureQ = 0.0; // Estado terminal: não há valor futuro
+        if (newState != TERMINAL) {
+            maxFutureQ = maxQ(newState);
+        }
+
+        int idx = oldState * numActions + action;
+        double target = reward + GAMMA * maxFutureQ;
+        double error = target - moveQ(idx, target, alpha(idx));
+        markDirty(oldState);
+        return error;
+    }
+
+    /**
+     * Q(λ) de Watkins: o mesmo erro de Bellman, aplicado a todos os pares
+     * (estado, ação) com rastro, proporcional ao rastro. Uma recompensa
+     * grande (acerto, morte, vitória) chega de uma vez aos passos que
+     * levaram a ela, em vez de subir um passo por rodada.
+     *
+     * Se a ação tomada não era a gulosa (exploração), os rastros anteriores
+     * são cortados: o que veio depois não diz nada sobre a política gulosa.
+     * Estado TERMINAL também zera os rastros.
+     */
+    public void learn(int oldState, int action, double reward, int newState, EligibilityTraces traces) {
+        if (oldState < 0) return;
+
+        double maxFutureQ = 0.0;
+        if (newState != TERMINAL) {
+            maxFutureQ = maxQ(newState);
+        }
+
+        int base = oldState * numActions;
+        int idx = base + action;
+        double currentQ = q(idx);
+        if (currentQ < q(base + getBestAction(oldState))) traces.clear();
+        traces.visit(idx);
+        boolean fresh = metrics != null && unvisited(oldState);
+        countVisit(idx);
+
+        // A posição visitada (rastro 1) vai primeiro, direto para o alvo; o
+        // erro que os outros rastros recebem é o do valor que ela de fato leu
+        double target = reward + GAMMA * maxFutureQ;
+        double error = target - moveQ(idx, target, alpha(idx));
+        markDirty(oldState);
+        if (metrics != null) metrics.learned(error, fresh);
+        for (int i = 0; i < traces.count; i++) {
+            int t = traces.index[i];
+            if (t == idx) continue;
+            addQ(t, alpha(t) * error * traces.value[i]);
+            markDirty(t / numActions);
+        }
+
+        if (newState == TERMINAL) traces.clear();
+        else traces.decay(GAMMA * LAMBDA);
+    }
+
+    // Acesso a uma posição da tabela; o ConcurrentQBrain troca por VarHandle
+    double q(int idx) {
+        return qTable[idx];
+    }
+
+    void addQ(int idx, double amount) {
+        qTable[idx] += amount;
+    }
+
+    /**
+     * Q += step * (target - Q) na posição; devolve o Q de antes. O
+     * ConcurrentQBrain refaz a conta sobre o valor que o CAS leu, então
+     * duas threads no mesmo alvo não somam o passo duas vezes.
+     */
+    double moveQ(int idx, double target, double step) {
+        double current = qTable[idx];
+        qTable[idx] = current + step * (target - current);
+        return current;
+    }
+
+    void countVisit(int idx) {
+        if (visits[idx] < Integer.MAX_VALUE) visits[idx]++;
+    }
+
+    // Estado que nenhum learn tocou ainda (nem em rodadas passadas, se salvas)
+    private boolean unvisited(int state) {
+        int base = state * numActions;
+        for (int a = 0; a < numActions; a++) {
+            if (visits[base + a] != 0) return false;
+        }
+        return true;
+    }
+
+    public void setMetrics(LearningMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Congela a ação gulosa de cada estado num GreedyPolicy. Estados sem
+     * nada aprendido (sem visitas e Q zerado) ficam com fallbackAction.
+     */
+    public GreedyPolicy compilePolicy(int fallbackAction) {
+        byte[] actions = new byte[numStates];
+        int unseen = 0;
+        for (int s = 0; s < numStates; s++) {
+            if (unvisited(s) && isZeroRow(s)) {
+                actions[s] = (byte) fallbackAction;
+                unseen++;
+            } else {
+                actions[s] = (byte) getBestAction(s);
+            }
+        }
+        return new GreedyPolicy(actions, unseen);
+    }
+
+    private boolean isZeroRow(int state) {
+        int base = state * numActions;
+        for (int a = 0; a < numActions; a++) {
+            if (qTable[base + a] != 0.0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Experience replay: reaplica a atualização de um passo em batchSize
+     * transições sorteadas do buffer. Não conta visita (a transição já foi
+     * contada quando aconteceu) e não usa rastro (transições soltas). Passa
+     * por q()/moveQ(), então o ConcurrentQBrain continua valendo.
      */
-    public void learn(String oldState, int action, double reward, String newState) {
-        if (oldState == null) return;
-
-        double[] oldRow = getQRow(oldState);
-
-        double maxFutureQ;
-        if (newState == null) {
-            // Estado terminal: não há valor futuro
-            maxFutureQ = 0.0;
-        } else {
-            double[] newRow = getQRow(newState);
-            maxFutureQ = newRow[0];
-            for (int i = 1; i < numActions; i++) {
-                if (newRow[i] > maxFutureQ) {
-                    maxFutureQ = newRow[i];
+    public void replay(ReplayBuffer buffer, int batchSize) {
+        if (buffer.size() == 0) return;
+        for (int n = 0; n < batchSize; n++) {
+            int i = buffer.sample();
+            int state = buffer.state(i);
+            if (state >= 0) update(state, buffer.action(i), buffer.reward(i), buffer.nextState(i));
+        }
+    }
+
+    // Linha alterada desde o último save (o ConcurrentQBrain não usa)
+    void markDirty(int state) {
+        if (!dirty[state]) {
+            dirty[state] = true;
+            dirtyRows[dirtyCount++] = state;
+        }
+    }
+
+    private void clearDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtyRows[i]] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    private double maxQ(int state) {
+        int base = state * numActions;
+        double max = q(base);
+        for (int i = 1; i < numActions; i++) {
+            max = Math.max(max, q(base + i));
+        }
+        return max;
+    }
+
+    public StateSpace getStateSpace() {
+        return space;
+    }
+
+    public int getNumActions() {
+        return numActions;
+    }
+
+    /** Quantos estados já têm algum valor aprendido (só para logs). */
+    public int countKnownStates() {
+        int known = 0;
+        for (int s = 0; s < numStates; s++) {
+            int base = s * numActions;
+            for (int a = 0; a < numActions; a++) {
+                if (qTable[base + a] != 0.0) {
+                    known++;
+                    break;
                 }
             }
         }
+        return known;
+    }
 
-        double currentQ = oldRow[action];
-        double updated = currentQ + ALPHA * (reward + GAMMA * maxFutureQ - currentQ);
-        oldRow[action] = updated;
+    /**
+     * Importa um cérebro antigo (HashMap de chave String -> double[]).
+     * Chaves que o StateSpace não reconhece são ignoradas; ações a mais são
+     * descartadas e ações a menos ficam zeradas. Retorna quantos estados entraram.
+     */
+    public int importLegacy(Map<String, double[]> legacy) {
+        int imported = 0;
+        for (Map.Entry<String, double[]> entry : legacy.entrySet()) {
+            int state = space.parse(entry.getKey());
+            if (state < 0) continue;
+            double[] row = entry.getValue();
+            int n = Math.min(row.length, numActions);
+            System.arraycopy(row, 0, qTable, state * numActions, n);
+            markDirty(state);
+            imported++;
+        }
+        return imported;
     }
 
+    /**
+     * Salva só o que mudou: as linhas sujas vão para o diário (arquivo
+     * ".journal" ao lado do cérebro). Quando o diário fica do tamanho da
+     * tabela, compacta: regrava o snapshot e apaga o diário.
+     * Chamar de novo sem aprender nada no meio não grava nada.
+     */
     public void save(File file) {
         try {
-            if (file.getParentFile() != null) {
-                file.getParentFile().mkdirs();
+            File journal = BrainJournal.fileFor(file);
+            if (!file.equals(persistedFile) || !file.exists()) {
+                writeSnapshot(file, journal);
+                System.out.println("Cérebro salvo: " + file.getAbsolutePath() + " (snapshot completo)");
+                return;
             }
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                oos.writeObject(qTable);
+            if (dirtyCount == 0) return;
+
+            int written = dirtyCount;
+            BrainJournal.append(journal, space.schemaId(), numActions, qTable, visits, dirtyRows, dirtyCount);
+            journalRecords += dirtyCount;
+            clearDirty();
+
+            // O diário já tem os valores atuais de toda linha que ele cita, então
+            // se o processo cair entre a troca do snapshot e o delete, reaplicar
+            // o diário sobre o snapshot novo não muda nada.
+            if (journalRecords >= numStates) {
+                writeSnapshot(file, journal);
+                System.out.println("Cérebro compactado: " + file.getAbsolutePath());
+            } else {
+                System.out.println("Cérebro salvo: " + file.getAbsolutePath() + " (+" + written + " linhas)");
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    @SuppressWarnings("unchecked")
+    /** Regrava o snapshot com tudo (o diário some): o brain.dat fica completo sozinho. */
+    @Override
+    public void compact(File file) {
+        try {
+            File journal = BrainJournal.fileFor(file);
+            if (file.equals(persistedFile) && file.exists() && dirtyCount == 0 && !journal.exists()) return;
+            writeSnapshot(file, journal);
+            System.out.println("Cérebro compactado: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeSnapshot(File file, File journal) throws IOException {
+        BrainFile.write(file, space.schemaId(), numStates, numActions, qTable, visits);
+        journal.delete();
+        journalRecords = 0;
+        clearDirty();
+        persistedFile = file;
+    }
+
     public void load(File file) {
         try {
-            if (!file.exists()) return;
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Object o = ois.readObject();
-                if (o instanceof Map) {
-                    qTable.clear();
-                    qTable.putAll((Map<String, double[]>) o);
+            if (!file.exists() || file.length() == 0) return;
+            if (BrainFile.isLegacy(file)) {
+                // Fica sem persistedFile: o próximo save já grava no formato novo
+                loadLegacy(file);
+            } else {
+                BrainFile.Header h;
+                try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    ByteBuffer buf = BrainFile.readAll(ch);
+                    h = BrainFile.readHeader(buf);
+                    if (h.schemaId != space.schemaId()) {
+                        // Estados codificados de outro jeito: melhor começar do zero que ler lixo
+                        System.out.println("AVISO: cérebro com outro espaço de estados, ignorado.");
+                        return;
+                    }
+                    if (h.keyFormat != BrainFile.KEY_DENSE) {
+                        System.out.println("AVISO: cérebro esparso (BoundedQBrain), ignorado.");
+                        return;
+                    }
+                    BrainFile.readTable(buf, h, qTable, numStates, numActions);
+                    BrainFile.readVisits(buf, h, visits, numStates, numActions);
+                }
+                // Diário só vale sobre um snapshot com o mesmo layout da tabela;
+                // os registros têm visitas se o snapshot tem
+                File journal = BrainJournal.fileFor(file);
+                boolean sameLayout = h.numActions == numActions && h.numStates == numStates;
+                int[] journalVisits = h.hasVisits() ? visits : null;
+                int records = sameLayout
+                        ? BrainJournal.replay(journal, space.schemaId(), qTable, journalVisits, numStates, numActions)
+                        : -1;
+                if (records >= 0) {
+                    journalRecords = records;
+                    // Snapshot de versão antiga: sem persistedFile, o próximo save regrava tudo
+                    if (h.version == BrainFile.VERSION) persistedFile = file;
+                } else if (sameLayout) {
+                    journal.delete(); // diário de outro cérebro
                 }
             }
+            System.out.println("Cérebro carregado! Estados: " + countKnownStates());
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    // Formatos antigos (serialização Java): HashMap com chaves String ou double[] puro
+    @SuppressWarnings("unchecked")
+    private void loadLegacy(File file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            Object o = ois.readObject();
+            if (o instanceof double[]) {
+                double[] saved = (double[]) o;
+                if (saved.length == qTable.length) {
+                    System.arraycopy(saved, 0, qTable, 0, saved.length);
+                }
+            } else if (o instanceof Map) {
+                int n = importLegacy((Map<String, double[]>) o);
+                System.out.println("Cérebro antigo convertido: " + n + " estados importados.");
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package MeleeLearning;
+
+import robocode.Rules;
+import robocode.util.Utils;
+
+/**
+ * RadarScheduler - Radar de melee que mantém todos os inimigos frescos.
+ *
+ * Começo de rodada: giro completo (360°) até ver todos os getOthers(), ou
+ * até a volta fechar. Depois, a cada turno, cada inimigo vivo tem uma
+ * prioridade = (idade do último scan + 1) x importância, e a importância
+ * cresce perto de nós (1 + NEAR / distância) e para o alvo da mira (focus).
+ *
+ * O plano é a varredura que passa por todos com o menor custo: para cada
+ * inimigo, o ângulo que o radar anda até passar por ele, vezes a prioridade
+ * dele, somado. Os candidatos são girar só para um lado, ou ir até um
+ * inimigo e voltar para o outro lado (a volta passa de novo pelo começo);
+ * com os offsets em ordem, são 2n planos de O(n) cada. Só a primeira perna
+ * vira comando: o turno seguinte replaneja com as idades novas, então o
+ * radar oscila sobre o arco mínimo em vez de dar voltas inteiras. A perna
+ * passa do inimigo por uma folga do quanto ele pode ter andado desde o
+ * último scan. Inimigo sumido há LOST_AGE turnos (mudou de lugar sem ser
+ * visto): volta ao giro completo.
+ *
+ * Conta a idade média e a máxima dos inimigos vivos por turno, para o
+ * relatório da rodada. Tudo em arrays pré-alocados: nada é criado por turno.
+ */
+public final class RadarScheduler {
+
+    public static final int MAX_ENEMIES = 64;
+
+    private static final double NEAR = 300;        // importância 2 a 300 px
+    private static final double FOCUS_WEIGHT = 3;  // alvo da mira pesa 3x
+    private static final int LOST_AGE = 24;        // 3 voltas de radar sem ver
+    private static final double HALF_BOT = 18;
+    private static final double MAX_SLACK = Rules.RADAR_TURN_RATE_RADIANS;
+    private static final double FULL_TURN = 2 * Math.PI;
+
+    // Por inimigo (só a rodada atual)
+    private final boolean[] alive = new boolean[MAX_ENEMIES];
+    private final long[] seen = new long[MAX_ENEMIES];
+    private final double[] x = new double[MAX_ENEMIES];
+    private final double[] y = new double[MAX_ENEMIES];
+    private int known = 0; // vistos nesta rodada e ainda vivos
+    private int focus = -1;
+
+    // Plano do turno, em ordem de offset no sentido horário
+    private final int[] order = new int[MAX_ENEMIES];
+    private final double[] offset = new double[MAX_ENEMIES];   // horário, [0, 2π)
+    private final double[] priority = new double[MAX_ENEMIES];
+    private final double[] slack = new double[MAX_ENEMIES];
+
+    // Giro completo
+    private boolean sweeping = true;
+    private double swept = 0;
+    private double lastHeading = Double.NaN;
+    private int direction = 1;
+
+    // Relatório: idade dos inimigos vivos, somada por turno
+    private long ageSum = 0;
+    private long ageSamples = 0;
+    private long ageMax = 0;
+
+    public RadarScheduler() {
+        newRound();
+    }
+
+    /** Início de rodada: esquece tudo e volta ao giro completo. */
+    public void newRound() {
+        for (int i = 0; i < MAX_ENEMIES; i++) alive[i] = false;
+        known = 0;
+        focus = -1;
+        startSweep();
+        ageSum = 0;
+        ageSamples = 0;
+        ageMax = 0;
+    }
+
+    public void onScan(int id, long time, double ex, double ey) {
+        if (id < 0 || id >= MAX_ENEMIES) return;
+        if (!alive[id]) {
+            alive[id] = true;
+            known++;
+        }
+        seen[id] = time;
+        x[id] = ex;
+        y[id] = ey;
+    }
+
+    public void forget(int id) {
+        if (id < 0 || id >= MAX_ENEMIES || !alive[id]) return;
+        alive[id] = false;
+        known--;
+        if (focus == id) focus = -1;
+    }
+
+    /** Alvo atual da mira (-1: nenhum); o radar o mantém mais fresco. */
+    public void focus(int id) {
+        focus = id;
+    }
+
+    /**
+     * Giro do radar para este turno (radianos, positivo = horário), para o
+     * setTurnRadarRightRadians. others: getOthers().
+     */
+    public double turn(long time, double myX, double myY, double radarHeading, int others) {
+        int n = 0;
+        boolean lost = false;
+        for (int i = 0; i < MAX_ENEMIES; i++) {
+            if (!alive[i]) continue;
+            long age = time - seen[i];
+            ageSum += age;
+            ageMax = Math.max(ageMax, age);
+            if (age > LOST_AGE) lost = true;
+            order[n++] = i;
+        }
+        ageSamples += n;
+
+        if (!Double.isNaN(lastHeading)) swept += Math.abs(Utils.normalRelativeAngle(radarHeading - lastHeading));
+        lastHeading = radarHeading;
+        if (sweeping && (known >= others && known > 0 || swept >= FULL_TURN)) sweeping = false;
+        if (!sweeping && (lost || known < others)) startSweep();
+        if (sweeping || n == 0) return direction * Double.POSITIVE_INFINITY;
+
+        // Offsets horários a partir do radar, em ordem (inserção: n é pequeno)
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            double dx = x[i] - myX;
+            double dy = y[i] - myY;
+            double dist = Math.max(HALF_BOT, Math.sqrt(dx * dx + dy * dy));
+            long age = time - seen[i];
+            double d = Utils.normalAbsoluteAngle(Math.atan2(dx, dy) - radarHeading);
+            double p = (age + 1) * (1 + NEAR / dist) * (i == focus ? FOCUS_WEIGHT : 1);
+            double s = Math.min(MAX_SLACK, (HALF_BOT + Rules.MAX_VELOCITY * (age + 1)) / dist);
+            int j = k;
+            while (j > 0 && offset[j - 1] > d) {
+                order[j] = order[j - 1];
+                offset[j] = offset[j - 1];
+                priority[j] = priority[j - 1];
+                slack[j] = slack[j - 1];
+                j--;
+            }
+            order[j] = i;
+            offset[j] = d;
+            priority[j] = p;
+            slack[j] = s;
+        }
+
+        // Plano horário: vai até order[end] e, se end < n-1, volta anti-horário
+        // até o primeiro depois dele. Anti-horário: o espelho.
+        double best = Double.POSITIVE_INFINITY;
+        double bestTurn = 0;
+        for (int end = 0; end < n; end++) {
+            double leg = offset[end];
+            double cost = 0;
+            for (int k = 0; k < n; k++) {
+                cost += priority[k] * (k <= end ? offset[k] : 2 * leg + ccw(offset[k]));
+            }
+            if (cost < best) {
+                best = cost;
+                bestTurn = leg + slack[end];
+            }
+        }
+        for (int start = n - 1; start >= 0; start--) {
+            double leg = ccw(offset[start]);
+            double cost = 0;
+            for (int k = 0; k < n; k++) {
+                cost += priority[k] * (k >= start ? ccw(offset[k]) : 2 * leg + offset[k]);
+            }
+            if (cost < best) {
+                best = cost;
+                bestTurn = -(leg + slack[start]);
+            }
+        }
+        direction = bestTurn < 0 ? -1 : 1;
+        return bestTurn;
+    }
+
+    /** Idade média (turnos) dos inimigos vivos desde o newRound. */
+    public double meanAge() {
+        return ageSamples == 0 ? 0 : (double) ageSum / ageSamples;
+    }
+
+    /** Maior idade vista desde o newRound. */
+    public long maxAge() {
+        return ageMax;
+    }
+
+    private void startSweep() {
+        sweeping = true;
+        swept = 0;
+        lastHeading = Double.NaN;
+    }
+
+    /** Offset anti-horário do mesmo ponto (0 continua 0). */
+    private static double ccw(double clockwise) {
+        return clockwise == 0 ? 0 : FULL_TURN - clockwise;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package MeleeLearning;
+
+import java.util.Random;
+
+/**
+ * ReplayBuffer - Memória de experiências (state, action, reward, nextState).
+ *
+ * Anel de tamanho fixo em arrays primitivos paralelos: gravar uma transição
+ * é escrever quatro posições, sem criar objeto nenhum. Cheio, a mais antiga
+ * é sobrescrita. O QBrain reaprende sobre mini-lotes sorteados daqui
+ * (QBrain.replay), então cada decisão é usada várias vezes em vez de uma.
+ *
+ * Não é thread-safe: um buffer por robô (cada arena do treino paralelo tem o
+ * seu, mesmo com o cérebro compartilhado).
+ */
+public final class ReplayBuffer {
+
+    private final int[] states;
+    private final int[] actions;
+    private final double[] rewards;
+    private final int[] nextStates; // QBrain.TERMINAL se a rodada acabou ali
+    private final Random random = new Random();
+
+    private int head = 0; // próxima posição a escrever
+    private int size = 0;
+
+    public ReplayBuffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacidade inválida: " + capacity);
+        this.states = new int[capacity];
+        this.actions = new int[capacity];
+        this.rewards = new double[capacity];
+        this.nextStates = new int[capacity];
+    }
+
+    public void add(int state, int action, double reward, int nextState) {
+        if (state < 0) return;
+        states[head] = state;
+        actions[head] = action;
+        rewards[head] = reward;
+        nextStates[head] = nextState;
+        head = (head + 1) % states.length;
+        if (size < states.length) size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return states.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /** Índice aleatório entre as transições guardadas (size() > 0). */
+    int sample() {
+        return random.nextInt(size);
+    }
+
+    int state(int i) {
+        return states[i];
+    }
+
+    int action(int i) {
+        return actions[i];
+    }
+
+    double reward(int i) {
+        return rewards[i];
+    }
+
+    int nextState(int i) {
+        return nextStates[i];
+    }
+}
\ No newline at end of file
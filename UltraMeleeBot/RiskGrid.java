@@ -0,0 +1,205 @@
+package MeleeLearning;
+
+import java.util.Arrays;
+
+/**
+ * RiskGrid - Campo de risco em grade grossa para movimento de menor risco.
+ *
+ * Cada célula guarda quanto custa estar ali: um termo de parede (fixo para
+ * o tamanho do campo, calculado uma vez e reaproveitado entre rodadas) mais
+ * a soma dos potenciais dos inimigos. O potencial de um inimigo é um kernel
+ * pré-calculado em volta da célula dele (w/d - w/CUTOFF, zero além do
+ * CUTOFF); quando ele muda de célula, tira o kernel da célula velha e soma
+ * na nova. Inimigo que anda sem trocar de célula não custa nada. Inimigo sem
+ * scan há mais que maxAge turnos sai da grade em expire() (a posição dele
+ * já não vale nada) e volta no próximo scan.
+ *
+ * bestAngle() testa dezenas de destinos em volta do robô com uma leitura de
+ * array cada e devolve a direção do menos arriscado. Com um WaveTracker,
+ * cada destino paga também o perigo das ondas inimigas que passam por ele.
+ */
+public final class RiskGrid {
+
+    public static final int MAX_ENEMIES = 64;
+
+    private static final double MIN_CELL = 20;
+    private static final int MAX_CELLS_PER_SIDE = 64;
+    // Pesos de inimigo e parede: padrões, o tuning.properties troca em configure()
+    private static double ENEMY_WEIGHT = 6000;
+    private static final double CUTOFF = 300;     // px; além disso o inimigo não pesa
+    private static double WALL_WEIGHT = 2500;
+    private static final double WALL_MARGIN = 18; // meio robô
+    private static final double WAVE_WEIGHT = 4;  // por ponto de dano de bala na linha de mira
+
+    // Destinos candidatos: DIRECTIONS direções x raios
+    private static final int DIRECTIONS = 24;
+    private static final double[] RADII = {60, 120, 180};
+    private static final double[] DIR_SIN = new double[DIRECTIONS];
+    private static final double[] DIR_COS = new double[DIRECTIONS];
+
+    static {
+        for (int i = 0; i < DIRECTIONS; i++) {
+            double a = 2 * Math.PI * i / DIRECTIONS;
+            DIR_SIN[i] = Math.sin(a);
+            DIR_COS[i] = Math.cos(a);
+        }
+    }
+
+    /** Termo de parede + kernel de um tamanho de campo; imutável, compartilhado. */
+    private static final class Layout {
+        final double width, height, cell;
+        final int cols, rows;
+        final double[] wall;
+        final int reach;       // raio do kernel em células
+        final double[] kernel; // (2*reach+1)^2, linha a linha
+
+        Layout(double width, double height) {
+            this.width = width;
+            this.height = height;
+            this.cell = Math.max(MIN_CELL, Math.ceil(Math.max(width, height) / MAX_CELLS_PER_SIDE));
+            this.cols = (int) Math.ceil(width / cell);
+            this.rows = (int) Math.ceil(height / cell);
+
+            wall = new double[cols * rows];
+            for (int r = 0; r < rows; r++) {
+                double y = (r + 0.5) * cell;
+                for (int c = 0; c < cols; c++) {
+                    double x = (c + 0.5) * cell;
+                    wall[r * cols + c] = wallRisk(x) + wallRisk(width - x) + wallRisk(y) + wallRisk(height - y);
+                }
+            }
+
+            reach = (int) Math.ceil(CUTOFF / cell);
+            int side = 2 * reach + 1;
+            kernel = new double[side * side];
+            for (int dy = -reach; dy <= reach; dy++) {
+                for (int dx = -reach; dx <= reach; dx++) {
+                    double d = Math.max(Math.hypot(dx, dy) * cell, cell / 2);
+                    double v = ENEMY_WEIGHT / d - ENEMY_WEIGHT / CUTOFF;
+                    kernel[(dy + reach) * side + (dx + reach)] = Math.max(0, v);
+                }
+            }
+        }
+
+        private static double wallRisk(double distance) {
+            double d = Math.max(distance - WALL_MARGIN, 1);
+            return WALL_WEIGHT / (d * d);
+        }
+    }
+
+    // Último layout calculado; rodadas seguintes (mesmo campo) reaproveitam
+    private static volatile Layout cached;
+
+    private final Layout layout;
+    private final double[] risk;
+    private final int[] enemyCell = new int[MAX_ENEMIES]; // -1 = fora da grade
+    private final long[] enemyTime = new long[MAX_ENEMIES]; // último scan
+
+    /** Pesos da execução; o layout guardado é refeito no próximo RiskGrid. */
+    public static void configure(Tuning tuning) {
+        ENEMY_WEIGHT = tuning.get("enemy_weight", ENEMY_WEIGHT);
+        WALL_WEIGHT = tuning.get("wall_weight", WALL_WEIGHT);
+        cached = null;
+    }
+
+    public RiskGrid(double width, double height) {
+        Layout l = cached;
+        if (l == null || l.width != width || l.height != height) {
+            l = new Layout(width, height);
+            cached = l;
+        }
+        layout = l;
+        risk = l.wall.clone();
+        Arrays.fill(enemyCell, -1);
+    }
+
+    /** Inimigo id está em (x, y) no turno time. Só mexe na grade se ele trocou de célula. */
+    public void moveEnemy(int id, double x, double y, long time) {
+        if (id < 0 || id >= MAX_ENEMIES) return;
+        enemyTime[id] = time;
+        int cell = cellOf(x, y);
+        if (cell == enemyCell[id]) return;
+        if (enemyCell[id] >= 0) stamp(enemyCell[id], -1);
+        stamp(cell, 1);
+        enemyCell[id] = cell;
+    }
+
+    public void removeEnemy(int id) {
+        if (id < 0 || id >= MAX_ENEMIES || enemyCell[id] < 0) return;
+        stamp(enemyCell[id], -1);
+        enemyCell[id] = -1;
+    }
+
+    /** Tira da grade quem não é visto há mais que maxAge turnos. */
+    public void expire(long now, long maxAge) {
+        for (int id = 0; id < MAX_ENEMIES; id++) {
+            if (enemyCell[id] >= 0 && now - enemyTime[id] > maxAge) removeEnemy(id);
+        }
+    }
+
+    public double riskAt(double x, double y) {
+        return risk[cellOf(x, y)];
+    }
+
+    /**
+     * Direção absoluta (convenção do Robocode) do destino candidato de
+     * menor risco em volta de (myX, myY). Candidatos fora do campo não contam.
+     */
+    public double bestAngle(double myX, double myY) {
+        return bestAngle(myX, myY, null);
+    }
+
+    /** Idem, somando o perigo das ondas (waves já atualizado neste turno; null = sem ondas). */
+    public double bestAngle(double myX, double myY, WaveTracker waves) {
+        Layout l = layout;
+        double maxX = l.width - WALL_MARGIN;
+        double maxY = l.height - WALL_MARGIN;
+        double bestRisk = Double.POSITIVE_INFINITY;
+        int bestDir = 0;
+        for (int r = 0; r < RADII.length; r++) {
+            double radius = RADII[r];
+            for (int i = 0; i < DIRECTIONS; i++) {
+                double x = myX + DIR_SIN[i] * radius;
+                double y = myY + DIR_COS[i] * radius;
+                if (x < WALL_MARGIN || x > maxX || y < WALL_MARGIN || y > maxY) continue;
+                double v = risk[cellOf(x, y)];
+                if (waves != null) v += WAVE_WEIGHT * waves.danger(x, y);
+                if (v < bestRisk) {
+                    bestRisk = v;
+                    bestDir = i;
+                }
+            }
+        }
+        return 2 * Math.PI * bestDir / DIRECTIONS;
+    }
+
+    private int cellOf(double x, double y) {
+        Layout l = layout;
+        int c = (int) (x / l.cell);
+        int r = (int) (y / l.cell);
+        if (c < 0) c = 0;
+        else if (c >= l.cols) c = l.cols - 1;
+        if (r < 0) r = 0;
+        else if (r >= l.rows) r = l.rows - 1;
+        return r * l.cols + c;
+    }
+
+    private void stamp(int cell, int sign) {
+        Layout l = layout;
+        int cols = l.cols;
+        int reach = l.reach;
+        int side = 2 * reach + 1;
+        int cc = cell % cols;
+        int cr = cell / cols;
+        int r0 = Math.max(0, cr - reach), r1 = Math.min(l.rows - 1, cr + reach);
+        int c0 = Math.max(0, cc - reach), c1 = Math.min(cols - 1, cc + reach);
+        double[] kernel = l.kernel;
+        for (int r = r0; r <= r1; r++) {
+            int row = r * cols;
+            int k = (r - cr + reach) * side + (reach - cc);
+            for (int c = c0; c <= c1; c++) {
+                risk[row + c] += sign * kernel[k + c];
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * TileBrain - Q-Learning linear sobre tile coding.
+ *
+ * Q(s, a) = soma dos pesos dos tiles ativos de s na coluna a. Os pesos são
+ * um double[] plano de tamanho fixo (tiles x ações), do mesmo jeito que a
+ * tabela do QBrain, e a atualização mexe só nos "tilings" pesos dos tiles
+ * ativos: nada alocado por turno, e a memória não cresce com as features.
+ *
+ * Mesma superfície do QBrain (Brain): o robô chama observe() com as
+ * features do turno e usa o int devolvido como estado em getAction/learn.
+ * Esse int aponta para um anel de observações recentes (tiles ativos já
+ * calculados); o anel é maior que o ReplayBuffer dos robôs, então
+ * transições sorteadas no replay ainda encontram seus estados.
+ *
+ * Persistência: os pesos são uma "tabela densa" de size() linhas, então vão
+ * no formato do BrainFile com o schemaId do TileCoder. Sempre snapshot
+ * completo (um passo de aprendizado toca tiles espalhados pela memória
+ * toda, o diário não compensaria); save sem nada aprendido no meio não grava.
+ */
+public class TileBrain implements Brain {
+
+    private static final int OBSERVATIONS = 8192; // > capacidade do ReplayBuffer dos robôs
+
+    private final TileCoder coder;
+    private final int numActions;
+    private final int tilings;
+    final double[] weights;
+    private final double step; // ALPHA dividido entre os tilings
+    private final Random random = new Random();
+    private boolean changed = false; // aprendeu algo desde o último save/load
+    private LearningMetrics metrics = null; // não há "estado novo" aqui, só erro TD
+
+    // Anel de observações: tiles ativos de cada uma, tilings por linha
+    private final int[] observed;
+    private int nextObservation = 0;
+
+    // Rascunhos: tiles da observação nova e Q por ação
+    private final int[] scratchTiles;
+    private final double[] values;
+
+    public TileBrain(TileCoder coder, int numActions) {
+        this.coder = coder;
+        this.numActions = numActions;
+        this.tilings = coder.tilings();
+        this.weights = new double[coder.size() * numActions];
+        this.step = QBrain.ALPHA / tilings;
+        this.observed = new int[OBSERVATIONS * tilings];
+        this.scratchTiles = new int[tilings];
+        this.values = new double[numActions];
+    }
+
+    /** Codifica as features do turno; o int devolvido é o estado para getAction/learn. */
+    public int observe(double[] features) {
+        int obs = nextObservation;
+        nextObservation = (obs + 1) % OBSERVATIONS;
+        coder.activeTiles(features, scratchTiles);
+        System.arraycopy(scratchTiles, 0, observed, obs * tilings, tilings);
+        return obs;
+    }
+
+    private void qValues(int obs) {
+        for (int a = 0; a < numActions; a++) values[a] = 0;
+        int base = obs * tilings;
+        for (int t = 0; t < tilings; t++) {
+            int row = observed[base + t] * numActions;
+            for (int a = 0; a < numActions; a++) {
+                values[a] += weights[row + a];
+            }
+        }
+    }
+
+    @Override
+    public int getBestAction(int state) {
+        qValues(state);
+        int best = 0;
+        for (int a = 1; a < numActions; a++) {
+            if (values[a] > values[best]) best = a;
+        }
+        return best;
+    }
+
+    @Override
+    public int getAction(int state, boolean training) {
+        if (training && random.nextDouble() < QBrain.EPSILON) {
+            return random.nextInt(numActions);
+        }
+        return getBestAction(state);
+    }
+
+    /** Mesma equação do QBrain, com o erro repartido entre os tiles ativos. */
+    @Override
+    public void learn(int oldState, int action, double reward, int newState) {
+        if (oldState < 0) return;
+        double error = update(oldState, action, reward, newState);
+        if (metrics != null) metrics.learned(error, false);
+    }
+
+    // Atualização de um passo, sem métricas (o replay também passa aqui); devolve o erro TD
+    private double update(int oldState, int action, double reward, int newState) {
+        double maxFutureQ = 0.0;
+        if (newState != QBrain.TERMINAL) {
+            qValues(newState);
+            maxFutureQ = values[0];
+            for (int a = 1; a < numActions; a++) {
+                if (values[a] > maxFutureQ) maxFutureQ = values[a];
+            }
+        }
+
+        int base = oldState * tilings;
+        double currentQ = 0;
+        for (int t = 0; t < tilings; t++) {
+            currentQ += weights[observed[base + t] * numActions + action];
+        }
+        double error = reward + QBrain.GAMMA * maxFutureQ - currentQ;
+        double delta = step * error;
+        for (int t = 0; t < tilings; t++) {
+            weights[observed[base + t] * numActions + action] += delta;
+        }
+        changed = true;
+        return error;
+    }
+
+    /**
+     * Q(λ) de Watkins sobre os pesos: cada passo deixa rastro nos tiles
+     * ativos da ação tomada (tilings posições por passo).
+     */
+    @Override
+    public void learn(int oldState, int action, double reward, int newState, EligibilityTraces traces) {
+        if (oldState < 0) return;
+
+        double maxFutureQ = 0.0;
+        if (newState != QBrain.TERMINAL) {
+            qValues(newState);
+            maxFutureQ = values[0];
+            for (int a = 1; a < numActions; a++) {
+                if (values[a] > maxFutureQ) maxFutureQ = values[a];
+            }
+        }
+
+        qValues(oldState);
+        double currentQ = values[action];
+        for (int a = 0; a < numActions; a++) {
+            if (values[a] > currentQ) {
+                traces.clear(); // exploração: corta os rastros
+                break;
+            }
+        }
+        int base = oldState * tilings;
+        for (int t = 0; t < tilings; t++) {
+            traces.visit(observed[base + t] * numActions + action);
+        }
+
+        double error = reward + QBrain.GAMMA * maxFutureQ - currentQ;
+        if (metrics != null) metrics.learned(error, false);
+        double delta = step * error;
+        for (int i = 0; i < traces.count; i++) {
+            weights[traces.index[i]] += delta * traces.value[i];
+        }
+        changed = true;
+
+        if (newState == QBrain.TERMINAL) traces.clear();
+        else traces.decay(QBrain.GAMMA * QBrain.LAMBDA);
+    }
+
+    @Override
+    public void replay(ReplayBuffer buffer, int batchSize) {
+        if (buffer.size() == 0) return;
+        for (int n = 0; n < batchSize; n++) {
+            int i = buffer.sample();
+            int state = buffer.state(i);
+            if (state >= 0) update(state, buffer.action(i), buffer.reward(i), buffer.nextState(i));
+        }
+    }
+
+    @Override
+    public void setMetrics(LearningMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void save(File file) {
+        if (!changed && file.exists()) return;
+        try {
+            BrainFile.write(file, coder.schemaId(), coder.size(), numActions, weights, null);
+            changed = false;
+            System.out.println("Cérebro (tiles) salvo: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void load(File file) {
+        if (!file.exists() || file.length() == 0) return;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = BrainFile.readAll(ch);
+            BrainFile.Header h = BrainFile.readHeader(buf);
+            if (h.schemaId != coder.schemaId() || h.numStates != coder.size()
+                    || h.keyFormat != BrainFile.KEY_DENSE) {
+                System.out.println("AVISO: cérebro com outro layout de tiles, ignorado.");
+                return;
+            }
+            BrainFile.readTable(buf, h, weights, coder.size(), numActions);
+            System.out.println("Cérebro (tiles) carregado: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
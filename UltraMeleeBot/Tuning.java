@@ -0,0 +1,94 @@
+package MeleeLearning;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Tuning - Hiperparâmetros e constantes de estratégia de uma execução.
+ *
+ * Lê um arquivo de propriedades (tuning.properties na pasta de dados do
+ * robô) com chave = valor. O arquivo é opcional: sem ele, ou sem a chave,
+ * vale o padrão que quem pergunta passou, que é o valor de sempre. Assim o
+ * SweepRunner (pasta Sweep) testa uma configuração só escrevendo o arquivo
+ * na pasta de dados isolada de cada batalha, sem recompilar o robô.
+ *
+ * Cada classe lê as chaves dela (QBrain.configure, RiskGrid.configure, o
+ * próprio robô) uma vez, antes de criar o cérebro. No fim, warnUnused()
+ * avisa das chaves do arquivo que ninguém leu: erro de digitação numa
+ * varredura vira aviso em vez de uma configuração igual à padrão.
+ */
+public final class Tuning {
+
+    public static final String FILE = "tuning.properties";
+
+    private final Properties values = new Properties();
+    private final Set<String> used = new HashSet<>();
+    private final String source;
+
+    /** Sem arquivo: tudo no padrão. */
+    public Tuning() {
+        source = "padrão";
+    }
+
+    /** Lê o arquivo; se ele não existe ou não lê, fica tudo no padrão. */
+    public static Tuning load(File file) {
+        Tuning tuning = new Tuning(file.getName());
+        if (!file.exists()) return tuning;
+        try (InputStream in = new FileInputStream(file)) {
+            tuning.values.load(in);
+        } catch (IOException e) {
+            System.out.println("AVISO: " + file.getName() + " ilegível, usando os padrões.");
+            tuning.values.clear();
+        }
+        return tuning;
+    }
+
+    private Tuning(String source) {
+        this.source = source;
+    }
+
+    public double get(String key, double fallback) {
+        String v = raw(key);
+        if (v == null) return fallback;
+        try {
+            return Double.parseDouble(v);
+        } catch (NumberFormatException e) {
+            System.out.println("AVISO: " + source + ": " + key + " = " + v + " não é número, usando " + fallback);
+            return fallback;
+        }
+    }
+
+    public int get(String key, int fallback) {
+        String v = raw(key);
+        if (v == null) return fallback;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            System.out.println("AVISO: " + source + ": " + key + " = " + v + " não é inteiro, usando " + fallback);
+            return fallback;
+        }
+    }
+
+    /** Chaves que o arquivo trouxe (para o log da batalha). */
+    public int size() {
+        return values.size();
+    }
+
+    /** Avisa das chaves do arquivo que nenhum configure() leu. */
+    public void warnUnused() {
+        for (String key : values.stringPropertyNames()) {
+            if (!used.contains(key)) System.out.println("AVISO: " + source + ": chave desconhecida " + key);
+        }
+    }
+
+    private String raw(String key) {
+        used.add(key);
+        String v = values.getProperty(key);
+        return v == null ? null : v.trim();
+    }
+}
\ No newline at end of file
@@ -4,9 +4,6 @@ import robocode.*;
 import robocode.util.Utils;
 
 import java.awt.*;
-import java.awt.geom.Point2D;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * UltraMeleeBot
@@ -15,7 +12,8 @@ import java.util.Map;
  * - Estratégias fortes hard-coded (anti-gravidade, rush, sniper, crazy)
  * - Q-Learning decide QUAL estratégia usar para cada estado do campo.
  *
- * Use com o QBrain da resposta anterior (que aceita newState == null).
+ * Use com o QBrain que aceita newState == QBrain.TERMINAL, ou com o
+ * TileBrain (TILE_CODING), que vê as features contínuas em vez dos buckets.
  */
 public class UltraMeleeBot extends AdvancedRobot {
 
@@ -27,27 +25,102 @@ public class UltraMeleeBot extends AdvancedRobot {
     private static final int NUM_ACTIONS     = 4;
 
     private static final String BRAIN_FILE = "ultra-brain.dat";
-    private static QBrain brain;
+    private static final String TILE_BRAIN_FILE = "ultra-tiles.dat";
+    private static final String PROFILE_FILE = "tick-profile.txt";
+    private static Brain brain;
+
+    // true = aproximação linear por tile coding (TileBrain) no lugar da tabela
+    private static final boolean TILE_CODING = false;
+    // > 0 = tabela limitada a tantos estados (BoundedQBrain, Q em 16 bits);
+    // lê o ultra-brain.dat denso e passa a gravar no formato esparso
+    private static final int MAX_BRAIN_ROWS = 0;
+
+    // Experience replay: últimas transições, reaprendidas em lotes a cada decisão
+    private static final ReplayBuffer experience = new ReplayBuffer(4096);
+    private static final int REPLAY_BATCH = 16;
+
+    // Gravação das transições para o OfflineTrainer (opt-in, só com a
+    // tabela: 16 bytes por decisão)
+    private static final boolean RECORD_BATTLES = false;
+    private static final String RECORD_FILE = "battles.qlog";
+    private static BattleRecorder recorder;
+
+    // Q(λ): passos recentes desta rodada que recebem o crédito das recompensas
+    // (no TileBrain cada passo deixa um rastro por tiling)
+    private final EligibilityTraces traces = new EligibilityTraces(256);
+
+    // Tempo por fase de cada turno; resumo no tick-profile.txt ao fim da batalha
+    private static final TickProfiler profiler = new TickProfiler();
+
+    // Erro TD, ações e recompensas por rodada: uma linha por rodada no learning-metrics.csv
+    private static final String METRICS_FILE = "learning-metrics.csv";
+    private static final int REWARD_SURVIVAL = 0;
+    private static final int REWARD_HIT = 1;
+    private static final int REWARD_HIT_BY_BULLET = 2;
+    private static final int REWARD_MISS = 3;
+    private static final int REWARD_WALL = 4;
+    private static final int REWARD_RAM = 5;
+    private static final int REWARD_END = 6; // vitória ou morte
+    private static final LearningMetrics metrics = new LearningMetrics(
+            new String[]{"EVASIVE", "AGGRESS", "SNIPER", "CRAZY"},
+            new String[]{"SOBREVIVER", "ACERTO", "TOMOU_BALA", "ERRO", "PAREDE", "COLISAO", "FIM"});
+
+    // Mira por guess factor: histogramas por oponente, valem a batalha toda
+    private static final GuessFactorGun gun = new GuessFactorGun();
+    private static final String GUN_FILE = "gf-stats.dat";
+    private static final double WAVE_POWER = 2.0; // potência das balas virtuais
+    // Mira por vizinhos: memória de situações por oponente, vale a batalha toda
+    private static final KnnGun knn = new KnnGun();
+
+    // Espaço de estados: distância | energia | inimigos | parede -> int compacto
+    private static final StateSpace STATES = new StateSpace("|",
+            new String[]{"VERY_CLOSE", "CLOSE", "MID", "FAR"},
+            new String[]{"HIGH", "MID", "LOW"},
+            new String[]{"MANY", "FEW", "DUEL", "ALONE"},
+            new String[]{"WALL", "CENTER"});
+    private final int[] stateBuckets = new int[4];
+
+    // Features contínuas do TileBrain: mesmas grandezas dos buckets e mais
+    // calor do canhão e energia do inimigo mais próximo
+    private static final TileCoder TILES = new TileCoder(8, 12,
+            new String[]{"DIST", "ENERGY", "ENEMIES", "WALL", "GUN_HEAT", "ENEMY_ENERGY"},
+            new double[]{0, 0, 0, 0, 0, 0},
+            new double[]{1000, 100, 8, 300, 1.6, 100},
+            new int[]{5, 4, 4, 3, 2, 4});
+    private final double[] features = new double[6];
 
     // Controle do Q-Learning
-    private String lastState = null;
+    private int lastState = QBrain.TERMINAL;
     private int lastAction = 0;
     private double rewardAcc = 0.0;
 
     // Modo treino: se quiser "modo campeonato", pode pôr false
     private static final boolean TRAINING = true;
 
-    // Info de inimigos
-    private static class Enemy {
-        String name;
-        Point2D.Double pos = new Point2D.Double();
-        double energy;
-        double heading;
-        double velocity;
-        long lastSeen;
-    }
+    // Constantes de estratégia: padrões, o tuning.properties troca no run()
+    private static int holdTicks = 20;         // turnos com a mesma estratégia
+    private static double sniperRange = 450;   // distância ideal do sniper
+    private static final double SNIPER_BAND = 150; // orbita dentro de ±isso
+
+    // Inimigos em slots + snapshot do turno (sem "private": os benchmarks
+    // usam a tabela e os métodos do caminho quente)
+    final EnemyTable enemies = new EnemyTable();
+    private final int[] gunIndex = new int[EnemyTable.MAX_ENEMIES]; // slot -> índice no gun (resolvido no 1º scan)
+    private final int[] knnIndex = new int[EnemyTable.MAX_ENEMIES]; // slot -> índice no knn (idem)
+
+    // Mira preditiva (linear / circular), sem alocação por tiro
+    private final AimSolver aim = new AimSolver();
+
+    // Tiros inimigos (quedas de energia) como ondas; o evasivo desvia delas
+    private final WaveTracker waves = new WaveTracker();
 
-    private final Map<String, Enemy> enemies = new HashMap<>();
+    // Radar: giro inicial e depois o arco mínimo que refresca os mais velhos
+    private final RadarScheduler radar = new RadarScheduler();
+
+    // Risco do campo (anti-gravidade) e suavização de parede; criados no
+    // primeiro uso porque precisam do tamanho do campo
+    private RiskGrid risk;
+    private WallSmoother walls;
 
     // Movimento auxiliar
     private int crazyDir = 1;
@@ -55,11 +128,27 @@ public class UltraMeleeBot extends AdvancedRobot {
     @Override
     public void run() {
         if (brain == null) {
-            brain = new QBrain(NUM_ACTIONS);
+            Tuning tuning = Tuning.load(getDataFile(Tuning.FILE));
+            QBrain.configure(tuning);
+            RiskGrid.configure(tuning);
+            holdTicks = Math.max(1, tuning.get("hold_ticks", holdTicks));
+            sniperRange = tuning.get("sniper_range", sniperRange);
+            tuning.warnUnused();
+            if (TILE_CODING) brain = new TileBrain(TILES, NUM_ACTIONS);
+            else if (MAX_BRAIN_ROWS > 0) brain = new BoundedQBrain(STATES, NUM_ACTIONS, MAX_BRAIN_ROWS);
+            else brain = QBrain.create(STATES, NUM_ACTIONS);
             try {
-                brain.load(getDataFile(BRAIN_FILE));
+                brain.load(getDataFile(brainFile()));
             } catch (Exception ignored) {}
+            brain.setMetrics(metrics);
+            gun.load(getDataFile(GUN_FILE));
+            if (RECORD_BATTLES && !TILE_CODING) {
+                recorder = new BattleRecorder(getDataFile(RECORD_FILE), STATES.schemaId(), STATES.size(),
+                        NUM_ACTIONS);
+            }
         }
+        gun.newRound();
+        knn.newRound();
 
         // Aparência
         setBodyColor(new Color(255, 140, 0)); // Laranja forte
@@ -73,84 +162,115 @@ public class UltraMeleeBot extends AdvancedRobot {
         setAdjustRadarForGunTurn(true);
         setAdjustRadarForRobotTurn(true);
 
-        // Radar girando sem parar até travar
-        setTurnRadarRightRadians(Double.POSITIVE_INFINITY);
-
+        profiler.startTick();
         while (true) {
             // Estado atual
-            String currentState = buildState();
+            int prev = profiler.enter(TickProfiler.STATE);
+            int currentState = observeState();
+            profiler.exit(prev);
 
             // Atualiza Q com passo anterior
-            if (lastState != null) {
-                brain.learn(lastState, lastAction, rewardAcc, currentState);
+            prev = profiler.enter(TickProfiler.LEARN);
+            if (lastState != QBrain.TERMINAL) {
+                brain.learn(lastState, lastAction, rewardAcc, currentState, traces);
+                if (TRAINING) {
+                    experience.add(lastState, lastAction, rewardAcc, currentState);
+                    if (recorder != null) recorder.add(lastState, lastAction, rewardAcc, currentState);
+                    brain.replay(experience, REPLAY_BATCH);
+                }
                 rewardAcc = 0.0;
             }
 
             int action = brain.getAction(currentState, TRAINING);
+            metrics.action(action);
             lastState = currentState;
             lastAction = action;
+            profiler.exit(prev);
 
             // Mantém a MESMA estratégia por alguns ticks, pra evitar "vibração"
-            for (int i = 0; i < 20; i++) {
-                doRadarLock();
+            for (int i = 0; i < holdTicks; i++) {
+                prev = profiler.enter(TickProfiler.RADAR);
+                doRadar();
+                profiler.exit(prev);
+                prev = profiler.enter(TickProfiler.STRATEGY);
                 executeStrategy(action);
-                rewardAcc += 0.03; // recompensa de sobrevivência leve
-                execute();
+                profiler.exit(prev);
+                reward(REWARD_SURVIVAL, 0.03); // recompensa de sobrevivência leve
+                endTurn();
             }
         }
     }
 
+    private void endTurn() {
+        profiler.endTick();
+        execute();
+        profiler.startTick();
+    }
+
     // =================== ESTADO ===================
 
-    private String buildState() {
-        double minDist = 1e9;
-        int count = 0;
+    /** Distâncias e ângulos dos inimigos, calculados no máximo uma vez por turno. */
+    private void refreshEnemies() {
         long now = getTime();
+        if (!enemies.isCurrent(now)) enemies.snapshot(now, getX(), getY());
+    }
 
-        for (Enemy e : enemies.values()) {
-            if (now - e.lastSeen > 40) continue;
-            count++;
-            double d = e.pos.distance(getX(), getY());
-            if (d < minDist) minDist = d;
-        }
-        if (minDist == 1e9) minDist = 1000;
+    /** Estado do turno no formato do cérebro em uso. */
+    private int observeState() {
+        if (brain instanceof TileBrain) return ((TileBrain) brain).observe(buildFeatures());
+        return buildState();
+    }
 
-        String distStr =
-                (minDist < 150) ? "VERY_CLOSE" :
-                (minDist < 300) ? "CLOSE" :
-                (minDist < 600) ? "MID" : "FAR";
+    double[] buildFeatures() {
+        refreshEnemies();
+        int nearest = enemies.nearest;
+        double dx = Math.min(getX(), getBattleFieldWidth() - getX());
+        double dy = Math.min(getY(), getBattleFieldHeight() - getY());
 
-        String energyStr =
-                (getEnergy() > 70) ? "HIGH" :
-                (getEnergy() > 30) ? "MID" : "LOW";
+        // Mesma ordem do TILES
+        features[0] = (nearest >= 0) ? enemies.dist[nearest] : 1000;
+        features[1] = getEnergy();
+        features[2] = enemies.recentCount;
+        features[3] = Math.min(dx, dy);
+        features[4] = getGunHeat();
+        features[5] = (nearest >= 0) ? enemies.energy[nearest] : 0;
+        return features;
+    }
 
-        String enemiesStr =
-                (count >= 5) ? "MANY" :
-                (count >= 3) ? "FEW" :
-                (count >= 1) ? "DUEL" : "ALONE";
+    int buildState() {
+        refreshEnemies();
+        int count = enemies.recentCount;
+        double minDist = (enemies.nearest >= 0) ? enemies.dist[enemies.nearest] : 1000;
+
+        // Índices na mesma ordem dos rótulos de STATES
+        stateBuckets[0] =
+                (minDist < 150) ? 0 :
+                (minDist < 300) ? 1 :
+                (minDist < 600) ? 2 : 3;
+
+        stateBuckets[1] =
+                (getEnergy() > 70) ? 0 :
+                (getEnergy() > 30) ? 1 : 2;
+
+        stateBuckets[2] =
+                (count >= 5) ? 0 :
+                (count >= 3) ? 1 :
+                (count >= 1) ? 2 : 3;
 
         double dx = Math.min(getX(), getBattleFieldWidth() - getX());
         double dy = Math.min(getY(), getBattleFieldHeight() - getY());
         double wallDist = Math.min(dx, dy);
-        String wallStr = (wallDist < 80) ? "WALL" : "CENTER";
+        stateBuckets[3] = (wallDist < 80) ? 0 : 1;
 
-        return distStr + "|" + energyStr + "|" + enemiesStr + "|" + wallStr;
+        return STATES.encode(stateBuckets);
     }
 
     // =================== RADAR ===================
 
-    private void doRadarLock() {
-        Enemy t = getBestTarget();
-        if (t == null) {
-            if (getRadarTurnRemainingRadians() == 0.0) {
-                setTurnRadarRightRadians(Double.POSITIVE_INFINITY);
-            }
-            return;
-        }
-        double absBearing = angleTo(t);
-        double radarTurn = Utils.normalRelativeAngle(absBearing - getRadarHeadingRadians());
-        // "Overshoot" leve para não perder lock
-        setTurnRadarRightRadians(radarTurn * 2);
+    // Todos frescos, com o alvo da mira mais que os outros (RadarScheduler)
+    private void doRadar() {
+        radar.focus(getBestTarget());
+        setTurnRadarRightRadians(radar.turn(getTime(), getX(), getY(), getRadarHeadingRadians(), getOthers()));
     }
 
     // =================== ESTRATÉGIAS ===================
@@ -172,27 +292,20 @@ public class UltraMeleeBot extends AdvancedRobot {
         }
     }
 
-    private Enemy getBestTarget() {
-        // alvo principal: inimigo mais perto e ainda "vivo" recentemente
-        Enemy best = null;
-        double bestDist = Double.POSITIVE_INFINITY;
-        long now = getTime();
+    private WallSmoother walls() {
+        if (walls == null) walls = new WallSmoother(getBattleFieldWidth(), getBattleFieldHeight(), 18);
+        return walls;
+    }
 
-        for (Enemy e : enemies.values()) {
-            if (now - e.lastSeen > 40) continue;
-            double d = e.pos.distance(getX(), getY());
-            if (d < bestDist) {
-                bestDist = d;
-                best = e;
-            }
-        }
-        return best;
+    private RiskGrid risk() {
+        if (risk == null) risk = new RiskGrid(getBattleFieldWidth(), getBattleFieldHeight());
+        return risk;
     }
 
-    private double angleTo(Enemy e) {
-        double dx = e.pos.x - getX();
-        double dy = e.pos.y - getY();
-        return Math.atan2(dx, dy); // padrão usado antes: x = sin, y = cos
+    /** Slot do alvo principal (inimigo recente mais perto), ou -1. */
+    int getBestTarget() {
+        refreshEnemies();
+        return enemies.nearest;
     }
 
     private void turnToAngle(double angle) {
@@ -201,6 +314,8 @@ public class UltraMeleeBot extends AdvancedRobot {
     }
 
     private void goToAngle(double angle, double distance) {
+        // Desvia da parede antes de bater (sonda no máximo até o fim do trecho)
+        angle = walls().smooth(getX(), getY(), angle, 0, Math.min(WallSmoother.DEFAULT_STICK, distance));
         double turn = Utils.normalRelativeAngle(angle - getHeadingRadians());
         if (Math.abs(turn) > Math.PI / 2) {
             turn = Utils.normalRelativeAngle(turn + Math.PI);
@@ -211,11 +326,13 @@ public class UltraMeleeBot extends AdvancedRobot {
         setTurnRightRadians(turn);
     }
 
-    private void aimAndFirePredictive(Enemy e, double desiredPower) {
-        if (e == null) return;
+    void aimAndFirePredictive(int e, double desiredPower) {
+        if (e < 0) return;
+        int prev = profiler.enter(TickProfiler.AIM);
+        EnemyTable en = enemies;
 
         // Ajuste de power com base em energia e distância
-        double dist = e.pos.distance(getX(), getY());
+        double dist = en.dist[e];
         double power = desiredPower;
 
         if (getEnergy() < 20) power = Math.min(power, 1.5);
@@ -225,78 +342,52 @@ public class UltraMeleeBot extends AdvancedRobot {
         power = Math.max(0.1, Math.min(3.0, power));
 
         double bulletSpeed = 20 - 3 * power;
-        double predX = e.pos.x;
-        double predY = e.pos.y;
-
-        // Itera algumas vezes pra achar ponto de interceptação
-        for (int i = 0; i < 15; i++) {
-            double time = Point2D.distance(getX(), getY(), predX, predY) / bulletSpeed;
-            predX = e.pos.x + Math.sin(e.heading) * e.velocity * time;
-            predY = e.pos.y + Math.cos(e.heading) * e.velocity * time;
-
-            // Clamping dentro do campo
-            predX = Math.max(18, Math.min(getBattleFieldWidth() - 18, predX));
-            predY = Math.max(18, Math.min(getBattleFieldHeight() - 18, predY));
-        }
 
-        double fireAngle = Math.atan2(predX - getX(), predY - getY());
+        // Vizinhos ou guess factor quando estão acertando mais que a preditiva;
+        // senão ponto de interceptação (circular se o inimigo estiver virando)
+        double w = getBattleFieldWidth(), h = getBattleFieldHeight();
+        double fireAngle = knn.aim(knnIndex[e], getX(), getY(), en.x[e], en.y[e], en.heading[e],
+                en.velocity[e], power, w, h);
+        if (Double.isNaN(fireAngle)) {
+            fireAngle = gun.aim(gunIndex[e], getX(), getY(), en.x[e], en.y[e], en.heading[e],
+                    en.velocity[e], power, w, h);
+        }
+        if (Double.isNaN(fireAngle)) {
+            fireAngle = aim.solve(getX(), getY(), en.x[e], en.y[e], en.heading[e], en.velocity[e],
+                    en.turnRate[e], bulletSpeed, w, h);
+        }
         double gunTurn = Utils.normalRelativeAngle(fireAngle - getGunHeadingRadians());
         setTurnGunRightRadians(gunTurn);
 
+        // setFire: o tiro sai no execute do turno; fire() gastaria um turno extra aqui dentro
         if (getGunHeat() == 0 && Math.abs(getGunTurnRemainingRadians()) < Math.toRadians(8)) {
-            fire(power);
+            setFire(power);
         }
+        profiler.exit(prev);
     }
 
     // --------- Estratégia 0: Evasivo (Anti-gravidade) ---------
-    private void strategyEvasive() {
-        double xForce = 0;
-        double yForce = 0;
-        double myX = getX();
-        double myY = getY();
-        long now = getTime();
-
-        for (Enemy e : enemies.values()) {
-            if (now - e.lastSeen > 50) continue;
-            double dx = e.pos.x - myX;
-            double dy = e.pos.y - myY;
-            double dist2 = dx * dx + dy * dy;
-            if (dist2 < 1) dist2 = 1;
-            double force = -6000 / dist2; // força repulsiva
-
-            double angle = Math.atan2(dx, dy);
-            xForce += Math.sin(angle) * force;
-            yForce += Math.cos(angle) * force;
-        }
-
-        // Repulsão das paredes
-        double w = getBattleFieldWidth();
-        double h = getBattleFieldHeight();
-        double margin = 40;
-
-        xForce += 5000 / Math.pow(myX - margin, 3);
-        xForce -= 5000 / Math.pow(w - myX - margin, 3);
-        yForce += 5000 / Math.pow(myY - margin, 3);
-        yForce -= 5000 / Math.pow(h - myY - margin, 3);
-
-        double moveAngle = Math.atan2(xForce, yForce);
-        goToAngle(moveAngle, 120);
-
-        Enemy t = getBestTarget();
-        if (t != null) {
+    // Vai para o destino de menor risco em volta (inimigos + paredes + ondas, RiskGrid)
+    void strategyEvasive() {
+        waves.update(getTime(), getX(), getY());
+        risk().expire(getTime(), EnemyTable.FORCE_AGE);
+        goToAngle(risk().bestAngle(getX(), getY(), waves), 120);
+
+        int t = getBestTarget();
+        if (t >= 0) {
             aimAndFirePredictive(t, 1.8);
         }
     }
 
     // --------- Estratégia 1: Agressivo (Rush) ---------
     private void strategyAggressive() {
-        Enemy t = getBestTarget();
-        if (t == null) {
+        int t = getBestTarget();
+        if (t < 0) {
             strategyEvasive();
             return;
         }
 
-        double angle = angleTo(t);
+        double angle = enemies.bearing[t];
         // Pequeno offset lateral pra não comer bala reta
         double offset = (Math.random() < 0.5 ? 1 : -1) * 0.5;
         angle += offset;
@@ -307,25 +398,24 @@ public class UltraMeleeBot extends AdvancedRobot {
 
     // --------- Estratégia 2: Sniper / Kiting ---------
     private void strategySniper() {
-        Enemy t = getBestTarget();
-        if (t == null) {
+        int t = getBestTarget();
+        if (t < 0) {
             strategyEvasive();
             return;
         }
 
-        double dist = t.pos.distance(getX(), getY());
-        double desired = 450; // distância ideal
+        double dist = enemies.dist[t];
 
         double angle;
-        if (dist < 300) {
+        if (dist < sniperRange - SNIPER_BAND) {
             // muito perto -> recua
-            angle = angleTo(t) + Math.PI;
-        } else if (dist > 600) {
+            angle = enemies.bearing[t] + Math.PI;
+        } else if (dist > sniperRange + SNIPER_BAND) {
             // muito longe -> aproxima
-            angle = angleTo(t);
+            angle = enemies.bearing[t];
         } else {
             // faixa ok -> orbita
-            angle = angleTo(t) + Math.PI / 2 * (Math.random() < 0.5 ? 1 : -1);
+            angle = enemies.bearing[t] + Math.PI / 2 * (Math.random() < 0.5 ? 1 : -1);
         }
 
         double moveDist = 140 + Math.random() * 40;
@@ -341,8 +431,8 @@ public class UltraMeleeBot extends AdvancedRobot {
         setTurnRight(45 * crazyDir);
         setAhead(120 * crazyDir);
 
-        Enemy t = getBestTarget();
-        if (t != null) {
+        int t = getBestTarget();
+        if (t >= 0) {
             aimAndFirePredictive(t, 1.7);
         }
     }
@@ -351,84 +441,149 @@ public class UltraMeleeBot extends AdvancedRobot {
 
     @Override
     public void onScannedRobot(ScannedRobotEvent e) {
-        Enemy enemy = enemies.get(e.getName());
-        if (enemy == null) {
-            enemy = new Enemy();
-            enemy.name = e.getName();
-            enemies.put(e.getName(), enemy);
-        }
-
         double absBearing = getHeadingRadians() + e.getBearingRadians();
         double dist = e.getDistance();
 
-        enemy.pos.x = getX() + Math.sin(absBearing) * dist;
-        enemy.pos.y = getY() + Math.cos(absBearing) * dist;
-        enemy.energy = e.getEnergy();
-        enemy.heading = e.getHeadingRadians();
-        enemy.velocity = e.getVelocity();
-        enemy.lastSeen = getTime();
+        double ex = getX() + Math.sin(absBearing) * dist;
+        double ey = getY() + Math.cos(absBearing) * dist;
+        int slot = enemies.scan(e.getName(), ex, ey, e.getEnergy(), e.getHeadingRadians(), e.getVelocity(), getTime());
+        if (slot < 0) return;
+        radar.onScan(slot, getTime(), ex, ey);
+        risk().moveEnemy(slot, ex, ey, getTime());
+        // Busca por nome nas miras só no primeiro scan do slot; depois é o índice guardado
+        if (enemies.firstScan) {
+            gunIndex[slot] = gun.opponent(e.getName());
+            knnIndex[slot] = knn.opponent(e.getName());
+        }
+        int opp = gunIndex[slot];
+        int near = knnIndex[slot];
+        double w = getBattleFieldWidth(), h = getBattleFieldHeight();
+        waves.onScan(slot, getTime(), ex, ey, e.getEnergy(), e.getVelocity(),
+                getX(), getY(), getHeadingRadians(), getVelocity(), w, h);
+        // Onda virtual; leva junto o tiro da preditiva para comparar as duas miras
+        double solverAngle = aim.solve(getX(), getY(), ex, ey, e.getHeadingRadians(), e.getVelocity(),
+                enemies.turnRate[slot], Rules.getBulletSpeed(WAVE_POWER), w, h);
+        gun.onScan(opp, getTime(), getX(), getY(), ex, ey, e.getHeadingRadians(), e.getVelocity(),
+                WAVE_POWER, solverAngle, w, h);
+        knn.onScan(near, getTime(), getX(), getY(), ex, ey, e.getHeadingRadians(), e.getVelocity(),
+                WAVE_POWER, solverAngle, w, h);
     }
 
     @Override
     public void onRobotDeath(RobotDeathEvent event) {
-        enemies.remove(event.getName());
+        int slot = enemies.kill(event.getName());
+        risk().removeEnemy(slot);
+        if (slot >= 0) {
+            gun.dropWaves(gunIndex[slot]);
+            knn.dropWaves(knnIndex[slot]);
+        }
+        waves.forget(slot);
+        radar.forget(slot);
         // matar inimigo indiretamente (último dano foi nosso) é difícil detectar,
         // então deixamos a recompensa principal nos eventos de tiro.
     }
 
+    private void reward(int type, double amount) {
+        rewardAcc += amount;
+        metrics.reward(type, amount);
+    }
+
     @Override
     public void onBulletHit(BulletHitEvent event) {
-        rewardAcc += 20.0; // tiro bom
+        reward(REWARD_HIT, 20.0); // tiro bom
+        waves.onBulletHit(enemies.slotOf(event.getName()), event.getBullet().getPower());
     }
 
     @Override
     public void onHitByBullet(HitByBulletEvent event) {
-        rewardAcc -= 15.0; // tomou bala
+        reward(REWARD_HIT_BY_BULLET, -15.0); // tomou bala
+        waves.onHitByBullet(enemies.slotOf(event.getName()), event.getPower(), getTime(), getX(), getY());
     }
 
     @Override
     public void onBulletMissed(BulletMissedEvent event) {
-        rewardAcc -= 2.0; // desperdiçou tiro
+        reward(REWARD_MISS, -2.0); // desperdiçou tiro
     }
 
     @Override
     public void onHitWall(HitWallEvent event) {
-        rewardAcc -= 20.0;
+        reward(REWARD_WALL, -20.0);
         setBack(80);
     }
 
     @Override
     public void onHitRobot(HitRobotEvent event) {
         // encostar em inimigo normalmente é ruim (rushing cego)
-        rewardAcc -= 8.0;
+        reward(REWARD_RAM, -8.0);
+        waves.onHitRobot(enemies.slotOf(event.getName()));
     }
 
     @Override
     public void onWin(WinEvent event) {
-        rewardAcc += 80.0;
-        if (lastState != null) {
-            brain.learn(lastState, lastAction, rewardAcc, null); // estado terminal
-        }
+        reward(REWARD_END, 80.0);
+        metrics.finish(getTime(), true);
+        learnTerminal();
         saveBrain();
     }
 
     @Override
     public void onDeath(DeathEvent event) {
-        rewardAcc -= 80.0;
-        if (lastState != null) {
-            brain.learn(lastState, lastAction, rewardAcc, null); // estado terminal
-        }
+        reward(REWARD_END, -80.0);
+        metrics.finish(getTime(), false);
+        learnTerminal();
         saveBrain();
     }
 
+    /**
+     * Último passo da rodada, para o estado terminal. Depois dele não há
+     * passo em aberto: o run() continua rodando depois da vitória e não pode
+     * aprender (nem gravar) a mesma recompensa de novo.
+     */
+    private void learnTerminal() {
+        if (lastState != QBrain.TERMINAL) {
+            brain.learn(lastState, lastAction, rewardAcc, QBrain.TERMINAL, traces);
+            experience.add(lastState, lastAction, rewardAcc, QBrain.TERMINAL);
+            if (recorder != null) recorder.add(lastState, lastAction, rewardAcc, QBrain.TERMINAL);
+        }
+        lastState = QBrain.TERMINAL;
+        rewardAcc = 0.0;
+    }
+
     @Override
     public void onRoundEnded(RoundEndedEvent event) {
         saveBrain();
+        metrics.radar(radar.meanAge(), radar.maxAge());
+        metrics.flush(getDataFile(METRICS_FILE), event.getRound(), event.getTurns());
+    }
+
+    @Override
+    public void onSkippedTurn(SkippedTurnEvent event) {
+        profiler.onSkippedTurn();
+    }
+
+    @Override
+    public void onBattleEnded(BattleEndedEvent event) {
+        // Fim da batalha: o cérebro inteiro no arquivo principal, sem diário
+        try {
+            brain.compact(getDataFile(brainFile()));
+        } catch (Exception ignored) {}
+        profiler.writeSummary(getDataFile(PROFILE_FILE), getClass().getSimpleName());
+        gun.save(getDataFile(GUN_FILE));
+        if (recorder != null) {
+            recorder.close();
+            recorder = null;
+        }
+    }
+
+    private static String brainFile() {
+        return TILE_CODING ? TILE_BRAIN_FILE : BRAIN_FILE;
     }
 
     private void saveBrain() {
+        int prev = profiler.enter(TickProfiler.LEARN);
         try {
-            brain.save(getDataFile(BRAIN_FILE));
+            brain.save(getDataFile(brainFile()));
         } catch (Exception ignored) {}
+        profiler.exit(prev);
     }
 }
\ No newline at end of file
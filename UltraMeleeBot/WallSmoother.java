@@ -0,0 +1,69 @@
+package MeleeLearning;
+
+/**
+ * WallSmoother - Desvia a direção de movimento antes de bater na parede.
+ *
+ * Projeta um ponto "stick" pixels à frente; se ele cair fora do campo, gira
+ * a direção em passos de STEP radianos até caber. O giro é feito no vetor
+ * (sin, cos) com a rotação do passo pré-calculada, então cada passo é só
+ * multiplicação e soma, e o laço tem teto fixo (uma volta, ou meia para
+ * cada lado): canto não custa mais que parede.
+ *
+ * Orientação 1 = sentido horário, -1 = anti-horário, 0 = testa os dois e
+ * fica com o que precisa girar menos.
+ */
+public final class WallSmoother {
+
+    public static final double DEFAULT_STICK = 140;
+
+    private static final double STEP = 0.05;
+    private static final double SIN_STEP = Math.sin(STEP);
+    private static final double COS_STEP = Math.cos(STEP);
+    private static final int HALF_TURN = (int) Math.ceil(Math.PI / STEP);
+
+    private final double minX, minY, maxX, maxY;
+
+    public WallSmoother(double fieldWidth, double fieldHeight, double margin) {
+        this.minX = margin;
+        this.minY = margin;
+        this.maxX = fieldWidth - margin;
+        this.maxY = fieldHeight - margin;
+    }
+
+    public double smooth(double x, double y, double angle, int orientation) {
+        return smooth(x, y, angle, orientation, DEFAULT_STICK);
+    }
+
+    /**
+     * Direção mais próxima de angle (no sentido pedido) cujo ponto a stick
+     * pixels fica dentro do campo. Se nada couber, devolve angle.
+     */
+    public double smooth(double x, double y, double angle, int orientation, double stick) {
+        double s = Math.sin(angle);
+        double c = Math.cos(angle);
+        if (inside(x + s * stick, y + c * stick)) return angle;
+
+        // cw = girando no sentido horário, ccw = anti-horário
+        double cwS = s, cwC = c, ccwS = s, ccwC = c;
+        int maxSteps = (orientation == 0) ? HALF_TURN : 2 * HALF_TURN;
+        for (int k = 1; k <= maxSteps; k++) {
+            if (orientation >= 0) {
+                double ns = cwS * COS_STEP + cwC * SIN_STEP;
+                cwC = cwC * COS_STEP - cwS * SIN_STEP;
+                cwS = ns;
+                if (inside(x + cwS * stick, y + cwC * stick)) return angle + k * STEP;
+            }
+            if (orientation <= 0) {
+                double ns = ccwS * COS_STEP - ccwC * SIN_STEP;
+                ccwC = ccwC * COS_STEP + ccwS * SIN_STEP;
+                ccwS = ns;
+                if (inside(x + ccwS * stick, y + ccwC * stick)) return angle - k * STEP;
+            }
+        }
+        return angle;
+    }
+
+    private boolean inside(double px, double py) {
+        return px > minX && px < maxX && py > minY && py < maxY;
+    }
+}
\ No newline at end of file
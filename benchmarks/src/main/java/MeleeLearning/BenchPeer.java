@@ -0,0 +1,159 @@
+package MeleeLearning;
+
+import robocode.Bullet;
+import robocode.RobotPeer;
+
+import java.io.File;
+
+/**
+ * BenchPeer - "Motor" parado para os benchmarks.
+ *
+ * Posição, ângulos e tempo fixos; execute() não avança nada. Os comandos
+ * set* só ficam guardados (e somados em checksum, para o JIT não jogar o
+ * trabalho fora). Canhão sempre frio, então os caminhos de tiro rodam.
+ */
+final class BenchPeer implements RobotPeer {
+
+    double x, y;
+    double heading, gunHeading, radarHeading;
+    double energy = 100;
+    long time = 100;
+    final double width, height;
+    final File dataDir;
+
+    double checksum;
+
+    BenchPeer(double width, double height, double x, double y, File dataDir) {
+        this.width = width;
+        this.height = height;
+        this.x = x;
+        this.y = y;
+        this.dataDir = dataDir;
+    }
+
+    public String getName() {
+        return "bench";
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getVelocity() {
+        return 0;
+    }
+
+    public double getHeadingRadians() {
+        return heading;
+    }
+
+    public double getGunHeadingRadians() {
+        return gunHeading;
+    }
+
+    public double getRadarHeadingRadians() {
+        return radarHeading;
+    }
+
+    public double getGunHeat() {
+        return 0;
+    }
+
+    public double getDistanceRemaining() {
+        return 0;
+    }
+
+    public double getBodyTurnRemaining() {
+        return 0;
+    }
+
+    public double getGunTurnRemaining() {
+        return 0;
+    }
+
+    public double getRadarTurnRemaining() {
+        return 0;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getOthers() {
+        return 0;
+    }
+
+    public int getRoundNum() {
+        return 0;
+    }
+
+    public int getNumRounds() {
+        return 1;
+    }
+
+    public double getBattleFieldWidth() {
+        return width;
+    }
+
+    public double getBattleFieldHeight() {
+        return height;
+    }
+
+    public double getGunCoolingRate() {
+        return 0.1;
+    }
+
+    public void setMove(double distance) {
+        checksum += distance;
+    }
+
+    public void setTurnBody(double radians) {
+        checksum += radians;
+    }
+
+    public void setTurnGun(double radians) {
+        checksum += radians;
+    }
+
+    public void setTurnRadar(double radians) {
+        checksum += radians;
+    }
+
+    public void setMaxVelocity(double maxVelocity) {
+        checksum += maxVelocity;
+    }
+
+    public Bullet setFire(double power) {
+        checksum += power;
+        return null;
+    }
+
+    public void setAdjustGunForBodyTurn(boolean adjust) {
+    }
+
+    public void setAdjustRadarForGunTurn(boolean adjust) {
+    }
+
+    public void setAdjustRadarForBodyTurn(boolean adjust) {
+    }
+
+    public void execute() {
+    }
+
+    public File getDataDirectory() {
+        dataDir.mkdirs();
+        return dataDir;
+    }
+
+    public long getDataQuotaAvailable() {
+        return 200000;
+    }
+}
\ No newline at end of file
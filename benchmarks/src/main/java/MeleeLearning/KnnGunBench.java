@@ -0,0 +1,72 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KnnGunBench - Custo da mira por vizinhos com a memória do oponente vazia,
+ * pela metade e cheia (LOG_SIZE situações): aim() é a busca dos K vizinhos
+ * mais a escolha do guess factor; nearest() e add() medem só a KdTree, com
+ * pontos aleatórios (a inserção inclui a reconstrução amortizada).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KnnGunBench {
+
+    @Param({"0", "1000", "2000"})
+    public int situations;
+
+    private KnnGun gun;
+    private KdTree tree;
+    private int opp;
+    private final double[] point = new double[KnnGun.DIMS];
+    private final double[] weights = {4, 3, 1, 1.5, 1};
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        gun = new KnnGun();
+        opp = gun.opponent("alvo");
+        // Alvo trocando de direção e de distância a esmo, uma onda por turno.
+        // Preditiva sem palpite (NaN): os vizinhos sempre respondem
+        double ex = 150, ey = 120, heading = 0.3, velocity = 8;
+        for (long t = 1; gun.memory(opp) < situations; t++) {
+            if (random.nextInt(20) == 0) velocity = -velocity;
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            ex = Math.max(18, Math.min(Layouts.WIDTH - 18, ex + Math.sin(heading) * velocity));
+            ey = Math.max(18, Math.min(Layouts.HEIGHT - 18, ey + Math.cos(heading) * velocity));
+            gun.onScan(opp, t, Layouts.MY_X, Layouts.MY_Y, ex, ey, heading, velocity,
+                    2.0, Double.NaN, Layouts.WIDTH, Layouts.HEIGHT);
+        }
+        tree = new KdTree(KnnGun.DIMS, KnnGun.LOG_SIZE, KnnGun.K);
+        for (int i = 0; i < situations; i++) tree.add(randomPoint(), 0, random.nextDouble() * 2 - 1);
+    }
+
+    /** A mira do turno contra o alvo. */
+    @Benchmark
+    public double aim() {
+        return gun.aim(opp, Layouts.MY_X, Layouts.MY_Y, 150, 120, 0.3, 8, 2.0,
+                Layouts.WIDTH, Layouts.HEIGHT);
+    }
+
+    @Benchmark
+    public int nearest() {
+        return tree.nearest(randomPoint(), 0, weights, KnnGun.K);
+    }
+
+    @Benchmark
+    public void add() {
+        tree.add(randomPoint(), 0, 0.5);
+    }
+
+    private double[] randomPoint() {
+        for (int d = 0; d < point.length; d++) point[d] = random.nextDouble();
+        return point;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package MeleeLearning;
+
+import robocode.AdvancedRobot;
+import robocode.ScannedRobotEvent;
+
+/**
+ * Layouts - Cenários sintéticos fixos para os benchmarks.
+ *
+ * Campo 800x600, nosso robô parado em (400, 300) com heading 0. Os inimigos
+ * saem sempre da mesma tabela, na mesma ordem, então rodadas diferentes do
+ * benchmark medem exatamente a mesma conta.
+ */
+final class Layouts {
+
+    static final double WIDTH = 800;
+    static final double HEIGHT = 600;
+    static final double MY_X = 400;
+    static final double MY_Y = 300;
+
+    // x, y, heading (rad), velocidade
+    private static final double[][] ENEMIES = {
+            {150, 120, 0.3, 8},
+            {650, 480, 2.1, -6},
+            {400, 520, 4.0, 4},
+            {120, 450, 1.2, 8},
+            {700, 150, 5.5, -8},
+            {300, 330, 3.3, 2},
+            {520, 260, 0.9, 0},
+            {250, 80, 2.7, 7},
+            {760, 560, 4.8, -3},
+            {60, 300, 1.6, 5},
+    };
+
+    static final int MAX_ENEMIES = ENEMIES.length;
+
+    private Layouts() {
+    }
+
+    /** Entrega ao robô um scan de cada um dos n primeiros inimigos da tabela. */
+    static void scanEnemies(AdvancedRobot bot, BenchPeer peer, int n) {
+        for (int i = 0; i < n; i++) {
+            double[] e = ENEMIES[i];
+            double dx = e[0] - peer.x;
+            double dy = e[1] - peer.y;
+            double bearing = Math.atan2(dx, dy) - peer.heading;
+            ScannedRobotEvent ev = new ScannedRobotEvent("enemy" + i, 100, bearing,
+                    Math.hypot(dx, dy), e[2], e[3], false);
+            ev.setTime(peer.time);
+            bot.onScannedRobot(ev);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QBrainBench - Decisão, atualização e persistência do QBrain em tabelas
+ * de tamanhos diferentes (96 estados é o UltraMeleeBot de hoje), e do
+ * BoundedQBrain com espaço para um quarto dos estados (despejo contínuo).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QBrainBench {
+
+    @Param({"96", "1024", "65536"})
+    public int states;
+
+    private static final int ACTIONS = 4;
+
+    private QBrain brain;
+    private GreedyPolicy policy;
+    private BoundedQBrain bounded;
+    private final EligibilityTraces traces = new EligibilityTraces(64);
+    private int state;
+    private File dir;
+    private File snapshot;   // só snapshot, para load()
+    private File journaled;  // snapshot + diário, para save() incremental
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // save/load escrevem no console a cada chamada
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        String[] labels = new String[states];
+        for (int i = 0; i < states; i++) labels[i] = "S" + i;
+        brain = new QBrain(new StateSpace("|", labels), ACTIONS);
+        for (int i = 0; i < states * 4; i++) {
+            brain.learn(i % states, i % ACTIONS, (i % 7) - 3, (i * 31) % states);
+        }
+
+        policy = brain.compilePolicy(0);
+        bounded = new BoundedQBrain(brain.space, ACTIONS, Math.max(1, states / 4));
+        for (int i = 0; i < states * 4; i++) {
+            bounded.learn(i % states, i % ACTIONS, (i % 7) - 3, (i * 31) % states);
+        }
+
+        dir = Files.createTempDirectory("qbrain-bench").toFile();
+        snapshot = new File(dir, "snapshot.dat");
+        journaled = new File(dir, "journaled.dat");
+        brain.save(snapshot);
+        brain.save(journaled);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    private int nextState() {
+        state = (state + 7919) % states;
+        return state;
+    }
+
+    @Benchmark
+    public int getActionGreedy() {
+        return brain.getAction(nextState(), false);
+    }
+
+    @Benchmark
+    public int getActionCompiled() {
+        return policy.getAction(nextState());
+    }
+
+    @Benchmark
+    public int getActionTraining() {
+        return brain.getAction(nextState(), true);
+    }
+
+    @Benchmark
+    public void learn() {
+        int s = nextState();
+        brain.learn(s, s & 3, 0.5, (s + 1) % states);
+    }
+
+    /** Q(λ): o passo mais os rastros vivos (sempre gulosa, então nada corta). */
+    @Benchmark
+    public void learnTraced() {
+        int s = nextState();
+        brain.learn(s, brain.getBestAction(s), 0.5, (s + 1) % states, traces);
+    }
+
+    @Benchmark
+    public void learnBounded() {
+        int s = nextState();
+        bounded.learn(s, s & 3, 0.5, (s + 1) % states);
+    }
+
+    @Benchmark
+    public int getActionBounded() {
+        return bounded.getAction(nextState(), false);
+    }
+
+    /** Uma decisão típica: learn de uma linha e save (uma linha no diário). */
+    @Benchmark
+    public void learnAndSaveIncremental() {
+        int s = nextState();
+        brain.learn(s, s & 3, 0.5, (s + 1) % states);
+        brain.save(journaled);
+    }
+
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        BrainFile.write(snapshot, brain.space.schemaId(), brain.numStates, ACTIONS, brain.qTable, brain.visits);
+    }
+
+    @Benchmark
+    public QBrain load() {
+        QBrain fresh = new QBrain(brain.space, ACTIONS);
+        fresh.load(snapshot);
+        return fresh;
+    }
+}
\ No newline at end of file
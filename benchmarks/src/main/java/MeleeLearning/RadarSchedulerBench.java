@@ -0,0 +1,50 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RadarSchedulerBench - Custo do plano do radar por turno com 1 a 20
+ * inimigos (os 2n planos de O(n) cada). Depois do giro inicial; cada
+ * chamada avança o tempo e o radar anda o que o plano mandou, então as
+ * idades e a ordem dos offsets mudam como numa rodada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RadarSchedulerBench {
+
+    @Param({"1", "5", "10", "20"})
+    public int enemies;
+
+    private RadarScheduler radar;
+    private long time = 0;
+    private double heading = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        radar = new RadarScheduler();
+        // Inimigos num anel em volta de nós, todos vistos no primeiro turno
+        for (int i = 0; i < enemies; i++) {
+            double a = 2 * Math.PI * i / enemies;
+            double r = 150 + (i % 4) * 60;
+            radar.onScan(i, 0, Layouts.MY_X + Math.sin(a) * r, Layouts.MY_Y + Math.cos(a) * r);
+        }
+    }
+
+    @Benchmark
+    public double plan() {
+        double turn = radar.turn(++time, Layouts.MY_X, Layouts.MY_Y, heading, enemies);
+        heading += Math.max(-Math.PI / 4, Math.min(Math.PI / 4, turn));
+        // Sem motor: o inimigo que o radar encarou é visto de novo
+        int seen = (int) (time % enemies);
+        double a = 2 * Math.PI * seen / enemies;
+        double r = 150 + (seen % 4) * 60;
+        radar.onScan(seen, time, Layouts.MY_X + Math.sin(a) * r, Layouts.MY_Y + Math.cos(a) * r);
+        return turn;
+    }
+}
\ No newline at end of file
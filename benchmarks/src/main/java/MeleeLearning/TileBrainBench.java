@@ -0,0 +1,69 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TileBrainBench - Custo por turno do TileBrain (codificar features,
+ * decidir, aprender) com o layout de tiles do UltraMeleeBot e com mais
+ * tilings, para comparar com o QBrainBench.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileBrainBench {
+
+    @Param({"8", "16"})
+    public int tilings;
+
+    private static final int ACTIONS = 4;
+
+    private TileBrain brain;
+    private final double[] features = new double[6];
+    private int previous;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TileCoder coder = new TileCoder(tilings, 12,
+                new String[]{"DIST", "ENERGY", "ENEMIES", "WALL", "GUN_HEAT", "ENEMY_ENERGY"},
+                new double[]{0, 0, 0, 0, 0, 0},
+                new double[]{1000, 100, 8, 300, 1.6, 100},
+                new int[]{5, 4, 4, 3, 2, 4});
+        brain = new TileBrain(coder, ACTIONS);
+        previous = brain.observe(nextFeatures());
+    }
+
+    // Features andando devagar, como num round
+    private double[] nextFeatures() {
+        tick++;
+        features[0] = 500 + 400 * Math.sin(tick * 0.01);
+        features[1] = 100 - (tick % 100);
+        features[2] = tick % 8;
+        features[3] = 150 + 140 * Math.cos(tick * 0.02);
+        features[4] = (tick % 16) * 0.1;
+        features[5] = (tick * 7) % 100;
+        return features;
+    }
+
+    @Benchmark
+    public int observe() {
+        return brain.observe(nextFeatures());
+    }
+
+    @Benchmark
+    public int observeAndGetAction() {
+        return brain.getAction(brain.observe(nextFeatures()), false);
+    }
+
+    @Benchmark
+    public void observeAndLearn() {
+        int next = brain.observe(nextFeatures());
+        brain.learn(previous, tick % ACTIONS, (tick % 7) - 3, next);
+        previous = next;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TrainerBotBench - Movimento e mira do TrainerBot (o MasterBot tem o mesmo
+ * código) com 1 a 10 inimigos no campo (Layouts).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrainerBotBench {
+
+    @Param({"1", "3", "5", "10"})
+    public int enemies;
+
+    private TrainerBot bot;
+    private BenchPeer peer;
+    private TrainerBot.EnemyBot target;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        peer = new BenchPeer(Layouts.WIDTH, Layouts.HEIGHT, Layouts.MY_X, Layouts.MY_Y,
+                new File(System.getProperty("java.io.tmpdir"), "trainer-bench"));
+        bot = new TrainerBot();
+        bot.setPeer(peer);
+        Layouts.scanEnemies(bot, peer, enemies);
+        target = bot.getNearestEnemy();
+    }
+
+    @Benchmark
+    public int getState() {
+        return bot.getState();
+    }
+
+    @Benchmark
+    public double smartFire() {
+        bot.smartFire(target, 2.0);
+        return peer.checksum;
+    }
+
+    @Benchmark
+    public double doAntiGravityMove() {
+        bot.doAntiGravityMove();
+        return peer.checksum;
+    }
+
+    /** Pior caso comum: encostado na parede direita, indo direto para ela. */
+    @Benchmark
+    public double wallSmoothingIntoWall() {
+        return bot.wallSmoothing(Layouts.WIDTH - 40, Layouts.MY_Y, Math.PI / 2, 1);
+    }
+
+    @Benchmark
+    public double wallSmoothingOpenField() {
+        return bot.wallSmoothing(Layouts.MY_X, Layouts.MY_Y, Math.PI / 2, 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UltraMeleeBotBench - Trabalho por tick do UltraMeleeBot com 1 a 10
+ * inimigos no campo (Layouts). Nenhum tick avança: o snapshot dos inimigos
+ * é montado uma vez e os outros benchmarks medem o custo com ele pronto,
+ * como no resto do turno; snapshot() mede o que cada turno paga para montá-lo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UltraMeleeBotBench {
+
+    @Param({"1", "3", "5", "10"})
+    public int enemies;
+
+    private UltraMeleeBot bot;
+    private BenchPeer peer;
+    private int target;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        peer = new BenchPeer(Layouts.WIDTH, Layouts.HEIGHT, Layouts.MY_X, Layouts.MY_Y,
+                new File(System.getProperty("java.io.tmpdir"), "ultra-bench"));
+        bot = new UltraMeleeBot();
+        bot.setPeer(peer);
+        Layouts.scanEnemies(bot, peer, enemies);
+        target = bot.getBestTarget();
+    }
+
+    @Benchmark
+    public int snapshot() {
+        bot.enemies.snapshot(peer.time, peer.x, peer.y);
+        return bot.enemies.nearest;
+    }
+
+    @Benchmark
+    public int buildState() {
+        return bot.buildState();
+    }
+
+    @Benchmark
+    public double aimAndFirePredictive() {
+        bot.aimAndFirePredictive(target, 2.0);
+        return peer.checksum;
+    }
+
+    /** Anti-gravidade + escolha de alvo + mira: a estratégia 0 inteira. */
+    @Benchmark
+    public double strategyEvasive() {
+        bot.strategyEvasive();
+        return peer.checksum;
+    }
+}
\ No newline at end of file
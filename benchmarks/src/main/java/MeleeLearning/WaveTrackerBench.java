@@ -0,0 +1,59 @@
+package MeleeLearning;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WaveTrackerBench - Custo do surf com 0 a 48 ondas inimigas no ar: o
+ * update() do turno mais a escolha de destino do RiskGrid com o perigo das
+ * ondas, e um scan sem tiro (o caso comum). O tempo não anda, então as
+ * mesmas ondas ficam no ar a medição inteira.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WaveTrackerBench {
+
+    @Param({"0", "12", "48"})
+    public int waves;
+
+    private static final long NOW = 100;
+
+    private WaveTracker tracker;
+    private RiskGrid grid;
+    private long scanTime = NOW;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tracker = new WaveTracker();
+        grid = new RiskGrid(Layouts.WIDTH, Layouts.HEIGHT);
+        // Um atirador por onda, num anel em volta de nós; tiros nos últimos 8 turnos
+        for (int w = 0; w < waves; w++) {
+            double a = 2 * Math.PI * w / Math.max(1, waves);
+            double r = 250 + (w % 3) * 20;
+            double x = Layouts.MY_X + Math.sin(a) * r;
+            double y = Layouts.MY_Y + Math.cos(a) * r;
+            long fired = NOW - (w % 8);
+            grid.moveEnemy(w, x, y, fired + 1);
+            tracker.onScan(w, fired, x, y, 100, 0, Layouts.MY_X, Layouts.MY_Y, 0, 8, Layouts.WIDTH, Layouts.HEIGHT);
+            tracker.onScan(w, fired + 1, x, y, 98, 0, Layouts.MY_X, Layouts.MY_Y, 0, 8, Layouts.WIDTH, Layouts.HEIGHT);
+        }
+    }
+
+    /** O evasivo inteiro do lado das ondas: aposentar, escolher as que contam e achar o destino. */
+    @Benchmark
+    public double surf() {
+        tracker.update(NOW + 1, Layouts.MY_X, Layouts.MY_Y);
+        return grid.bestAngle(Layouts.MY_X, Layouts.MY_Y, tracker);
+    }
+
+    @Benchmark
+    public boolean scanWithoutShot() {
+        return tracker.onScan(63, ++scanTime, 100, 100, 50, 4, Layouts.MY_X, Layouts.MY_Y, 0, 8,
+                Layouts.WIDTH, Layouts.HEIGHT);
+    }
+}
\ No newline at end of file